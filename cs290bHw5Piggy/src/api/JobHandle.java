@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package api;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A job that was submitted to a Space: it is computed while its client 
+ * does other things, e.g., submits and waits for other jobs. 
+ * No Space thread waits for a job, except during an await.
+ * A job is cancelled when its handle is no longer referenced by a client, 
+ * e.g., when its clients disconnect.
+ * @author Peter Cappello
+ */
+public interface JobHandle extends Remote
+{
+    /**
+     * @return the job's id.
+     * @throws RemoteException
+     */
+    long id() throws RemoteException;
+    
+    /**
+     * @return true if and only if the job completed, or was cancelled.
+     * @throws RemoteException
+     */
+    boolean isDone() throws RemoteException;
+    
+    /**
+     * @return true if and only if the job was cancelled.
+     * @throws RemoteException
+     */
+    boolean isCancelled() throws RemoteException;
+    
+    /**
+     * Do not wait.
+     * @return the job's result, or null, if the job has not completed.
+     * @throws CancellationException if the job was cancelled.
+     * @throws RemoteException
+     */
+    ReturnValue poll() throws RemoteException;
+    
+    /**
+     * Wait for the job to complete, but no longer than timeout.
+     * @param timeout
+     * @param unit of timeout.
+     * @return the job's result, or null, if the job did not complete in time.
+     * @throws CancellationException if the job was cancelled.
+     * @throws RemoteException
+     */
+    ReturnValue await( long timeout, TimeUnit unit ) throws RemoteException;
+    
+    /**
+     * Cancel the job: its remaining Task objects are not executed.
+     * @return true if and only if the job was cancelled by this invocation: 
+     * false if it completed, or was cancelled, before.
+     * @throws RemoteException
+     */
+    boolean cancel() throws RemoteException;
+    
+    /**
+     * Stream the job's intermediate results to listener, from now on, 
+     * until the job completes or is cancelled.
+     * @param listener
+     * @throws RemoteException
+     */
+    void addListener( Listener listener ) throws RemoteException;
+    
+    /**
+     * When the job completes or is cancelled, notify listener: once, 
+     * immediately if the job is done already.
+     * @param listener
+     * @throws RemoteException
+     */
+    void subscribe( JobListener listener ) throws RemoteException;
+}
@@ -23,7 +23,6 @@
  */
 package api;
 
-import applications.euclideantsp.Tour;
 import system.Task;
 import java.awt.BorderLayout;
 import java.awt.Container;
@@ -31,6 +30,9 @@ import java.net.MalformedURLException;
 import java.rmi.Naming;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFrame;
@@ -47,6 +49,8 @@ import system.SpaceImpl;
  */
 public class JobRunner<T> extends JFrame
 {
+    static final private long AWAIT_TIME = 1; // s.
+    
     final private Space  space;
     final private long   startTime = System.nanoTime();
     
@@ -88,34 +92,91 @@ public class JobRunner<T> extends JFrame
     }
     
     /**
-     * Run the Job: Generate the tasks, retrieve the results, compose a solution
-     * to the original problem, and display the solution.
+     * Submit a Job: return without waiting for it. 
+     * Submitted jobs are computed concurrently.
      * @param task the task that defines the job.
+     * @param shared the job's shared object; if null, a NullShared.
+     * @return the job's handle.
      * @throws RemoteException occurs if there is a communication problem or
      * the remote service is not responding
      */
-    public void run( final Task task ) throws RemoteException
+    public JobHandle submit( final Task task, final Shared shared ) throws RemoteException
     {
-        view( space.compute( task ).view() );
-        Logger.getLogger( this.getClass().getCanonicalName() )
-              .log( Level.INFO, "Job run time: {0} ms.", ( System.nanoTime() - startTime ) / 1000000 );
+        return space.submit( task, shared );
     }
     
+    /**
+     * Run the Job: Generate the tasks, retrieve the results, compose a solution
+     * to the original problem, and display the solution.
+     * @param task the task that defines the job.
+     * @throws RemoteException occurs if there is a communication problem or
+     * the remote service is not responding
+     */
+    public void run( final Task task ) throws RemoteException { run( task, null ); }
+    
+    /**
+     * Run the Job: Generate the tasks, retrieve the results, compose a solution
+     * to the original problem, and display the solution.
+     * @param task the task that defines the job.
+     * @param shared
+     * @throws RemoteException occurs if there is a communication problem or
+     * the remote service is not responding
+     */
+    public void run( final Task task, final Shared shared ) throws RemoteException { run( task, shared, false ); }
+    
     /**
      * Run the Job: Generate the tasks, retrieve the results, compose a solution
      * to the original problem, and display the solution.
      * @param task the task that defines the job.
      * @param shared
+     * @param isLogged if true, the job's intermediate results are logged as they stream in: 
+     * each partial result then crosses the network a second time.
      * @throws RemoteException occurs if there is a communication problem or
      * the remote service is not responding
      */
-    public void run( final Task task, Shared shared ) throws RemoteException
+    public void run( final Task task, final Shared shared, final boolean isLogged ) throws RemoteException
     {
-        view( space.compute( task, shared ).view() );
+        final JobHandle job = submit( task, shared );
+        final EventLogger eventLogger = isLogged ? new EventLogger() : null;
+        final ReturnValue result;
+        try
+        {
+            if ( isLogged )
+            {
+                job.addListener( eventLogger );
+            }
+            result = await( job );
+        }
+        finally
+        {
+            if ( isLogged )
+            {
+                UnicastRemoteObject.unexportObject( eventLogger, true );
+            }
+        }
+        view( result.view() );
         Logger.getLogger( this.getClass().getCanonicalName() )
               .log( Level.INFO, "Job run time: {0} ms.", ( System.nanoTime() - startTime ) / 1000000 );
     }
     
+    /**
+     * Wait for a job to complete, AWAIT_TIME at a time: 
+     * no Space thread waits for the job's entire run time.
+     * @param job the job's handle.
+     * @return the job's result.
+     * @throws RemoteException occurs if there is a communication problem or
+     * the remote service is not responding
+     */
+    public ReturnValue await( final JobHandle job ) throws RemoteException
+    {
+        ReturnValue result = job.await( AWAIT_TIME, TimeUnit.SECONDS );
+        while ( result == null )
+        {
+            result = job.await( AWAIT_TIME, TimeUnit.SECONDS );
+        }
+        return result;
+    }
+    
     private void view( final JLabel jLabel )
     {
         final Container container = getContentPane();
@@ -125,8 +186,29 @@ public class JobRunner<T> extends JFrame
         setVisible( true );
     }
     
-    private void handleEvent( Tour tour )
+    /**
+     * Log a job's intermediate results: its improved Shared objects, and 
+     * the number of its partial results.
+     */
+    static private class EventLogger extends UnicastRemoteObject implements Listener
     {
+        private int numValues;
+        
+        EventLogger() throws RemoteException {}
         
+        @Override
+        synchronized public void processEvents( final long jobId, final Shared shared, final List<Object> values )
+        {
+            final Logger logger = Logger.getLogger( JobRunner.class.getCanonicalName() );
+            if ( shared != null )
+            {
+                logger.log( Level.INFO, "Job {0}: shared: {1}", new Object[] { jobId, shared } );
+            }
+            if ( ! values.isEmpty() )
+            {
+                numValues += values.size();
+                logger.log( Level.INFO, "Job {0}: {1} partial results.", new Object[] { jobId, numValues } );
+            }
+        }
     }
 }
@@ -23,15 +23,25 @@
  */
 package api;
 
-import applications.euclideantsp.Tour;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 /**
- *
+ * Receives a job's intermediate results, as they occur, in batches: 
+ * improvements of its Shared object, and its partial results 
+ * (see ReturnValue.isPartialResult). 
+ * A Listener receives at most 1 batch per Configuration.EVENT_INTERVAL.
  * @author Peter Cappello
  */
 public interface Listener extends Remote 
 {
-    void processEvent( Tour tour ) throws RemoteException;
+    /**
+     * The job's events since the previous batch.
+     * @param jobId the job's id.
+     * @param shared the job's newest Shared object, if it improved; else, null.
+     * @param values the values of the job's partial results, in the order that they arrived.
+     * @throws RemoteException
+     */
+    void processEvents( long jobId, Shared shared, List<Object> values ) throws RemoteException;
 }
@@ -23,11 +23,13 @@
  */
 package api;
 
+import java.io.Externalizable;
+
 /**
  * The shared object used when the job does not use the shared object feature.
  * @author Peter Cappello
  */
-public class NullShared extends Shared
+public class NullShared extends Shared implements Externalizable
 {
     @Override public boolean isOlderThan(Shared that) { return false; }
 }
@@ -0,0 +1,51 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package api;
+
+import system.Return;
+
+/**
+ * A Task that may become stale: one that can no longer improve on its job's 
+ * Shared object, e.g., a branch-and-bound task whose lower bound is no less 
+ * than the Shared upper bound. The Space does not dispatch a stale Task, 
+ * nor does a Computer execute it: its Return is staleReturn( shared ).
+ * A Task opts in by implementing both methods.
+ * @author Peter Cappello
+ */
+public interface Prunable 
+{
+    /**
+     * Can this Task not improve on shared?
+     * @param shared the current Shared object of this Task's job.
+     * @return true if and only if this Task is stale.
+     */
+    boolean isStale( Shared shared );
+    
+    /**
+     * The Return of this Task, when it is stale: a value that its parent TaskCompose accepts.
+     * @param shared the Shared object against which this Task is stale.
+     * @return the Return of this Task.
+     */
+    Return staleReturn( Shared shared );
+}
@@ -24,15 +24,25 @@
 package api;
 
 import system.Task;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.LongSupplier;
 import system.Return;
 import system.SpaceImpl;
 
-public class ReturnDecomposition extends Return
+public class ReturnDecomposition extends Return implements Externalizable
 {    
-    final private TaskCompose compose;
-    final private List<? extends Task> tasks;
+    private TaskCompose compose;
+    private List<? extends Task> tasks;
+    
+    /**
+     * For Externalizable.
+     */
+    public ReturnDecomposition() {}
     
     public ReturnDecomposition( TaskCompose compose, List<? extends Task> tasks )
     {
@@ -45,34 +55,70 @@ public class ReturnDecomposition extends Return
     public List<? extends Task> tasks() { return tasks; }
     
     @Override
-    public Return setIds( Task parentTask )
+    public Return setIds( final Task parentTask, final LongSupplier taskIds )
     {
-        final UUID composeId = UUID.randomUUID();
+        final long composeId = taskIds.getAsLong();
         compose.id( composeId );
+        compose.jobId( parentTask.jobId() );
         compose.composeId( parentTask.composeId() );
         compose.composeArgNum( parentTask.composeArgNum() );
+        compose.depth( parentTask.depth() );
         compose.numArgs( tasks.size() );
         compose.decomposeTaskRunTime( taskRunTime() );
         for ( int i = 0; i < tasks.size(); i++  )
         {
             Task task = tasks.get( i );
-            task.id( UUID.randomUUID() );
+            task.id( taskIds.getAsLong() );
+            task.jobId( parentTask.jobId() );
             task.composeId( composeId );
             task.composeArgNum( i );
-            assert task.id() != null && task.composeId() != null;
+            task.depth( parentTask.depth() + 1 );
+            task.solveDepth( parentTask.solveDepth() );
         }
         return this;
     }
     
     /**
-     *
+     * If there are no Task objects, e.g., every child was pruned, 
+     * the compose task is ready: it is executed now.
      * @param space the Space that holds the Task and Results.
      */
     @Override
     public void process( final Task parentTask, final SpaceImpl space ) 
     {
         compose.decomposeTaskRunTime( taskRunTime() );
+        if ( tasks.isEmpty() )
+        {
+            space.putReadyTask( compose );
+            return;
+        }
         space.putCompose( compose );
         space.putReadyTasks( tasks );
     }
+    
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        out.writeObject( compose );
+        out.writeInt( tasks.size() );
+        for ( Task task : tasks )
+        {
+            out.writeObject( task );
+        }
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        compose = (TaskCompose) in.readObject();
+        final int numTasks = in.readInt();
+        final List<Task> taskList = new ArrayList<>( numTasks );
+        for ( int i = 0; i < numTasks; i++ )
+        {
+            taskList.add( (Task) in.readObject() );
+        }
+        tasks = taskList;
+    }
 }
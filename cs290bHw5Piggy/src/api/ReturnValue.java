@@ -23,7 +23,9 @@
  */
 package api;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import javax.swing.JLabel;
 import system.Task;
 import system.Return;
@@ -36,9 +38,14 @@ import system.SpaceImpl;
  */
 abstract public class ReturnValue<T> extends Return
 {    
-    final private UUID composeId;
-    final private int composeArgNum;
-    final private T value;
+    private long composeId;
+    private int composeArgNum;
+    private T value;
+    
+    /**
+     * For subclasses that implement Externalizable.
+     */
+    public ReturnValue() {}
     
     public ReturnValue( final Task task, final T value ) 
     { 
@@ -50,9 +57,24 @@ abstract public class ReturnValue<T> extends Return
     
     public T value() { return value; }
     
+    /**
+     * Is this value, as the input of a TaskCompose, a partial result 
+     * that is streamed to the job's Listener objects? 
+     * Override, e.g., to stream the blocks of an image as they are computed.
+     * @return by default, false.
+     */
+    public boolean isPartialResult() { return false; }
+    
+    /**
+     * The Space buffers a bounded number of bytes of partial results for each Listener. 
+     * Override, if a partial result is large, e.g., the block of an image.
+     * @return an estimate of the size of this partial result, in bytes: by default, 1 KB.
+     */
+    public int partialResultSize() { return 1024; }
+    
     /**
      * Update the taskCompose task that is waiting for this input.
-     * @param associatedTask unused - the task whose Result is to be processed.
+     * @param associatedTask the task whose Result is to be processed.
      * @param space containing the taskCompose task that is waiting for this value.
      */
     @Override
@@ -65,23 +87,66 @@ abstract public class ReturnValue<T> extends Return
             t1(   commonTime + task.sumChildT1() );
             tInf( commonTime + task.maxChildTInf() );
         }
-        else
+        else if ( t1() == 0 ) // else, a subtree executed by the Computer: T1 & Tinf are set.
         {
             t1(   taskRunTime() );
             tInf( taskRunTime() );
         }
-        if ( composeId.equals( space.rootTaskReturnValue() ) )
+        if ( composeId == associatedTask.jobId() )
         {
-            space.tInf( tInf() );
-            space.putResult( this );
+            space.putResult( associatedTask.jobId(), this );
             return;
         }
-        final TaskCompose taskCompose = space.getCompose( composeId );
-        assert taskCompose != null;
-        taskCompose.arg( composeArgNum, value, space );
+        final TaskCompose taskCompose = space.getCompose( associatedTask.jobId(), composeId );
+        if ( taskCompose == null )
+        {
+            return; // its job was cancelled.
+        }
+        if ( isPartialResult() )
+        {
+            space.putPartialResult( associatedTask.jobId(), value, partialResultSize() );
+        }
+        // record the times before the arg: the last arg executes taskCompose.
         taskCompose.sumChildT1( t1() );
         taskCompose.maxChildTInf( tInf() );
+        taskCompose.arg( composeArgNum, value, space );
     }
     
     abstract public JLabel view();
+    
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        out.writeLong( composeId );
+        out.writeInt( composeArgNum );
+        writeValue( out, value );
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        composeId = in.readLong();
+        composeArgNum = in.readInt();
+        value = readValue( in );
+    }
+    
+    /**
+     * Override to write value more compactly than writeObject does.
+     * @param out
+     * @param value
+     * @throws IOException 
+     */
+    protected void writeValue( final ObjectOutput out, final T value ) throws IOException { out.writeObject( value ); }
+    
+    /**
+     * Override to read the value written by an overridden writeValue.
+     * @param in
+     * @return the value.
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    @SuppressWarnings( "unchecked" )
+    protected T readValue( final ObjectInput in ) throws IOException, ClassNotFoundException { return (T) in.readObject(); }
 }
@@ -23,10 +23,15 @@
  */
 package api;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 
 /**
  * This is an immutable class.
+ * As with Task, a subclass may opt into a compact wire format by implementing 
+ * java.io.Externalizable.
  * @author Peter Cappello
  * @param <T> the sharedObject object's type.
  */
@@ -42,4 +47,23 @@ abstract public class Shared<T extends Shared> implements Serializable
      * @return true if and only if this is older than that.
      */
     abstract public boolean isOlderThan( final T that );
+    
+    /**
+     * Write this Shared's fields; used by subclasses that implement Externalizable.
+     * @param out
+     * @throws IOException 
+     */
+    public void writeExternal( final ObjectOutput out ) throws IOException { out.writeObject( sharedObject ); }
+    
+    /**
+     * Read this Shared's fields; used by subclasses that implement Externalizable.
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    @SuppressWarnings( "unchecked" )
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException 
+    { 
+        sharedObject = (T) in.readObject(); 
+    }
 }
@@ -62,6 +62,44 @@ public interface Space extends Remote
      */
     ReturnValue compute( Task task, Shared shared ) throws RemoteException;
     
+    /**
+     * The Space computes jobs concurrently: they share its Computers 
+     * in proportion to their weights.
+     * @param task to be computed.
+     * @param shared the shared object; if null, a NullShared.
+     * @param weight the job's share of the Computers, relative to the other jobs' weights: positive.
+     * @return the task's execute method return value.
+     * @throws RemoteException
+     */
+    ReturnValue compute( Task task, Shared shared, int weight ) throws RemoteException;
+    
+    /**
+     * Submit a job: return without waiting for it to complete.
+     * @param task to be computed.
+     * @return the job's handle.
+     * @throws RemoteException
+     */
+    JobHandle submit( Task task ) throws RemoteException;
+    
+    /**
+     * Submit a job: return without waiting for it to complete.
+     * @param task to be computed.
+     * @param shared the shared object; if null, a NullShared.
+     * @return the job's handle.
+     * @throws RemoteException
+     */
+    JobHandle submit( Task task, Shared shared ) throws RemoteException;
+    
+    /**
+     * Submit a job: return without waiting for it to complete.
+     * @param task to be computed.
+     * @param shared the shared object; if null, a NullShared.
+     * @param weight the job's share of the Computers, relative to the other jobs' weights: positive.
+     * @return the job's handle.
+     * @throws RemoteException
+     */
+    JobHandle submit( Task task, Shared shared, int weight ) throws RemoteException;
+    
     /**
      *
      * @param taskList
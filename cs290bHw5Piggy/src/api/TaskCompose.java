@@ -5,6 +5,9 @@
  */
 package api;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.rmi.RemoteException;
 import system.Task;
 import java.util.ArrayList;
@@ -37,52 +40,125 @@ public abstract class TaskCompose<I> extends Task
     
     /**
      * Set one of this task's inputs.
+     * Only the recording of the input is synchronized: when this is the last 
+     * input, this task executes outside of the lock.
      * @param argNum the index of this input.
      * @param argValue the value of this input.
      * @param space if this is the last input this task is waiting for, put
      * the task in the space's ready task queue; remove it from the waiting task map.
      */
-    synchronized public void arg( final int argNum, final I argValue, SpaceImpl space ) 
+    public void arg( final int argNum, final I argValue, SpaceImpl space ) 
     { 
-        assert numUnsetArgs > 0 &&  argValue != null && args.get( argNum ) == null; 
-        args.set( argNum, argValue );
-        if ( --numUnsetArgs == 0 )
+        if ( ! arg( argNum, argValue ) )
         {
-            if ( Configuration.SPACE_CALLABLE )
-            {
-                try 
-                { 
-                    // assumes TaskCompose is SPACE_CALLABLE.
-                    space.processResult( this, space.computer().execute( this, space.shared() ) );
-                }
-                catch ( RemoteException ignore ) {} 
-            }
-            else
-            {
-                space.putReadyTask( this );
+            return;
+        }
+        space.removeWaitingTask( jobId(), id() );
+        if ( Configuration.SPACE_CALLABLE )
+        {
+            try 
+            { 
+                // assumes TaskCompose is SPACE_CALLABLE.
+                space.processResult( this, space.computer().execute( this ) );
             }
-            space.removeWaitingTask( id() );
+            catch ( RemoteException ignore ) {} 
         }
+        else
+        {
+            space.putReadyTask( this );
+        }
+    }
+    
+    /**
+     * Record one of this task's inputs.
+     * @param argNum the index of this input.
+     * @param argValue the value of this input.
+     * @return true if and only if this was the last input this task is waiting for.
+     */
+    synchronized public boolean arg( final int argNum, final I argValue )
+    {
+        assert numUnsetArgs > 0 &&  argValue != null; 
+        record( argNum, argValue );
+        return --numUnsetArgs == 0;
+    }
+    
+    /**
+     * Record an input, in the List of inputs. The caller holds this task's lock.
+     * @param argNum the index of this input.
+     * @param argValue the value of this input.
+     */
+    protected void record( final int argNum, final I argValue )
+    {
+        assert args.get( argNum ) == null;
+        args.set( argNum, argValue );
     }
     
     synchronized public void numArgs( int numArgs )
     {
         assert numArgs >= 0;
         numUnsetArgs = numArgs;
-        args = Collections.synchronizedList( new ArrayList<>( numArgs ) ) ;
+        args = newArgs( numArgs );
+    }
+    
+    /**
+     * @param numArgs the number of inputs.
+     * @return the List of inputs: numArgs nulls, until they are recorded.
+     */
+    protected List<I> newArgs( final int numArgs )
+    {
+        final List<I> newArgs = Collections.synchronizedList( new ArrayList<>( numArgs ) ) ;
         for ( int i = 0; i < numArgs; i++ )
         {
-            args.add( null );
+            newArgs.add( null );
         }
-        assert args.size() == numArgs;
+        assert newArgs.size() == numArgs;
+        return newArgs;
     }
         
     public void decomposeTaskRunTime( long time ) { decomposeTaskRunTime = time; }
     public long decomposeTaskRunTime() { return decomposeTaskRunTime; }
     
-    public long sumChildT1() { return sumChildT1; }
-    public void sumChildT1( long time ) { sumChildT1 +=  time; }
+    synchronized public long sumChildT1() { return sumChildT1; }
+    synchronized public void sumChildT1( long time ) { sumChildT1 +=  time; }
+    
+    synchronized public long maxChildTInf() { return maxChildTinf; }
+    synchronized public void maxChildTInf( long time ) { maxChildTinf = maxChildTinf < time ? time : maxChildTinf; }
+    
+    @Override
+    synchronized public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        out.writeInt( numUnsetArgs );
+        out.writeInt( args == null ? -1 : args.size() );
+        if ( args != null )
+        {
+            for ( I arg : args )
+            {
+                out.writeObject( arg );
+            }
+        }
+        out.writeLong( decomposeTaskRunTime );
+        out.writeLong( sumChildT1 );
+        out.writeLong( maxChildTinf );
+    }
     
-    public long maxChildTInf() { return maxChildTinf; }
-    public void maxChildTInf( long time ) { maxChildTinf = maxChildTinf < time ? time : maxChildTinf; }
+    @Override
+    @SuppressWarnings( "unchecked" )
+    synchronized public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        numUnsetArgs = in.readInt();
+        final int numArgs = in.readInt();
+        if ( numArgs >= 0 )
+        {
+            args = Collections.synchronizedList( new ArrayList<>( numArgs ) );
+            for ( int i = 0; i < numArgs; i++ )
+            {
+                args.add( (I) in.readObject() );
+            }
+        }
+        decomposeTaskRunTime = in.readLong();
+        sumChildT1 = in.readLong();
+        maxChildTinf = in.readLong();
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package api;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A TaskCompose whose inputs are combined by an associative, commutative 
+ * operation: each input is folded into an accumulator as it arrives, 
+ * in no particular order, and is not kept. 
+ * The call method composes accumulator().
+ * @author Peter Cappello
+ * @param <I> the type of the inputs, and of the accumulator.
+ */
+public abstract class TaskComposeFold<I> extends TaskCompose<I>
+{
+    private I accumulator;
+    private boolean isInitialized; // true once the first input set the accumulator to identity().
+    
+    /**
+     * The initial value of the accumulator, made once, when the first input arrives.
+     * @return by default, null: then fold must handle a null accumulator.
+     */
+    protected I identity() { return null; }
+    
+    /**
+     * Combine an input with the accumulator; the caller holds this task's lock.
+     * @param accumulator the inputs folded so far; it may be updated in place. 
+     * Before the first fold, it is identity(), which may be null.
+     * @param argValue an input.
+     * @return the new accumulator.
+     */
+    abstract protected I fold( I accumulator, I argValue );
+    
+    /**
+     * @return the fold of the inputs; null if there are none, and no identity.
+     */
+    synchronized public I accumulator() { return accumulator; }
+    
+    @Override
+    protected void record( final int argNum, final I argValue )
+    {
+        if ( ! isInitialized )
+        {
+            accumulator = identity();
+            isInitialized = true;
+        }
+        accumulator = fold( accumulator, argValue );
+    }
+    
+    /**
+     * @param numArgs the number of inputs.
+     * @return an empty List: inputs are not kept.
+     */
+    @Override
+    protected List<I> newArgs( final int numArgs ) { return Collections.emptyList(); }
+    
+    @Override
+    synchronized public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        out.writeBoolean( isInitialized );
+        out.writeObject( accumulator );
+    }
+    
+    @Override
+    @SuppressWarnings( "unchecked" )
+    synchronized public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        isInitialized = in.readBoolean();
+        accumulator = (I) in.readObject();
+    }
+}
@@ -35,10 +35,14 @@ abstract public class TaskRecursive<T> extends Task
     /**
      * If this task does not decompose, return a ReturnValue object, 
      * otherwise return a ReturnDecomposition object.
+     * A task that can be solved is not decomposed at or below the Space's solve depth.
      * @return Either a ReturnValue object of a ReturnDecomposition object.
      */
     @Override
-    public Return call() { return isAtomic() ? solve() : divideAndConquer(); }
+    public Return call() 
+    { 
+        return isAtomic() || isSolvable() && depth() >= solveDepth() ? solve() : divideAndConquer(); 
+    }
     
     /**
      *
@@ -46,6 +50,13 @@ abstract public class TaskRecursive<T> extends Task
      */
     abstract public boolean isAtomic();
     
+    /**
+     * Can solve() solve this task, though it is not atomic? If so, the Space 
+     * has it solved when its subtasks would run too briefly to amortize their dispatch.
+     * @return by default, false.
+     */
+    public boolean isSolvable() { return false; }
+    
     /**
      *
      * @return the ReturnValue object.
@@ -24,6 +24,7 @@
 package applications.euclideantsp;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  *
@@ -34,4 +35,29 @@ public interface LowerBound extends Serializable
     double cost();
     
     LowerBound make( TaskEuclideanTsp parentTask, Integer newCity );    
+    
+    /**
+     * @param partialTour the partial tour that this is the lower bound of.
+     * @return a mutable lower bound for an in-place depth-first search 
+     * of the tours that extend partialTour.
+     */
+    Search search( List<Integer> partialTour );
+    
+    /**
+     * A mutable lower bound: make extends the partial tour by a city, 
+     * unmake undoes the last make. Neither allocates.
+     */
+    interface Search
+    {
+        double cost();
+        
+        /**
+         * Extend the partial tour from its end, oldCity, to newCity.
+         * @param oldCity
+         * @param newCity an unvisited city.
+         */
+        void make( int oldCity, int newCity );
+        
+        void unmake();
+    }
 }
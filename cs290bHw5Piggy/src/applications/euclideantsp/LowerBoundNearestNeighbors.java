@@ -23,92 +23,91 @@
  */
 package applications.euclideantsp;
 
-import java.io.Serializable;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Deque;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.List;
-import static util.EuclideanGraph.distance;
-import static util.EuclideanGraph.tourDistance;
+import util.Distances;
 
 /**
- *
+ * Each city has 2 virtual edges, to its 2 nearest neighbors; the lower bound 
+ * is half the sum of the costs of the edges of the partial tour's cities. 
+ * When the partial tour is extended, an actual edge replaces a virtual edge 
+ * of each of its endpoints.
+ * 
+ * The 2 nearest neighbors of all cities, from the cities' candidate lists, 
+ * are in 1 immutable int array, 
+ * shared by every LowerBoundNearestNeighbors of the search: 
+ * the nearest neighbor of city is endpoints[ 2 * city ]; 
+ * the 2nd nearest is endpoints[ 2 * city + 1 ].
+ * Only the partial tour's endpoints have a virtual edge that is not 
+ * determined by the partial tour: a child is made in O(1) time and space.
  * @author Peter Cappello
  */
-final public class LowerBoundNearestNeighbors implements LowerBound, Serializable 
+final public class LowerBoundNearestNeighbors implements LowerBound, Externalizable 
 {
-    static final private Integer    EMPTY = -1;
-    static final private double[][] CITIES = TaskEuclideanTsp.CITIES;
+    static final private int EMPTY = -1;
     
-           final private List<Deque<Integer>> nearestNeighborsList;
-           final private double lowerBound;
+    private Distances distances;
+    private int[] endpoints;
+    private double lowerBound;
+    private int startNeighbor = EMPTY; // city 0's remaining virtual edge endpoint.
+    private int endNeighbor   = EMPTY; // the partial tour's last city's remaining virtual edge endpoint.
     
-    public LowerBoundNearestNeighbors()
+    /**
+     * The lower bound of the tours of TaskEuclideanTsp.CITIES that start with city 0.
+     */
+    public LowerBoundNearestNeighbors() { this( Root.ROOT.distances, Root.ROOT.endpoints, Root.ROOT.lowerBound, EMPTY, EMPTY ); }
+    
+    /**
+     * Initialized on first use: TaskEuclideanTsp initializes its root Task with this class.
+     */
+    static private class Root
     {
-        nearestNeighborsList = initializeNearestNeighbors();
+        static final private LowerBoundNearestNeighbors ROOT = new LowerBoundNearestNeighbors( TaskEuclideanTsp.DISTANCES );
+    }
+    
+    /**
+     * The lower bound of the tours of a graph that start with city 0.
+     * @param distances of the graph.
+     */
+    public LowerBoundNearestNeighbors( final Distances distances )
+    {
+        this.distances = distances;
+        endpoints = initializeNearestNeighbors( distances );
         lowerBound = initializeLowerBound();
     }
     
-    public LowerBoundNearestNeighbors( final List<Deque<Integer>> nearestNeighbors, final double lowerBound ) 
+    private LowerBoundNearestNeighbors( final Distances distances, final int[] endpoints, final double lowerBound, final int startNeighbor, final int endNeighbor ) 
     {
-        List<Deque<Integer>> copyNearestNeighbors = new ArrayList<>();
-        for ( int city = 0; city < nearestNeighbors.size(); city++ )
-        {
-            Deque<Integer> deque = new ArrayDeque<>();
-            Integer[] array = nearestNeighbors.get( city ).toArray(new Integer[0]);
-            for ( int neighbor = 0; neighbor < array.length; neighbor++ )
-            {
-                deque.add( array[ neighbor ] ); 
-            }
-            copyNearestNeighbors.add( deque );
-        }
-        this.nearestNeighborsList = copyNearestNeighbors;
+        this.distances = distances;
+        this.endpoints = endpoints;
         this.lowerBound = lowerBound;
+        this.startNeighbor = startNeighbor;
+        this.endNeighbor = endNeighbor;
     }
     
     private double initializeLowerBound()
     {
         double bound = 0.0;
-        for ( int city = 0; city < CITIES.length; city++ )
+        for ( int city = 0; city < distances.numCities(); city++ )
         {
-            final Deque<Integer> deque = nearestNeighborsList.get( city );
-            bound += distance( CITIES[ city ], CITIES[ deque.peekFirst() ] );
-            bound += distance( CITIES[ city ], CITIES[ deque.peekLast()  ] );
+            bound += distance( city, nearest( city ) );
+            bound += distance( city, secondNearest( city ) );
         }
         return bound / 2.0;
     }
     
-    private List<Deque<Integer>> initializeNearestNeighbors()
+    static private int[] initializeNearestNeighbors( final Distances distances )
     {
-        final List<Deque<Integer>> neighbors = new ArrayList<>();
-        for ( int city = 0; city < CITIES.length; city++ )
+        final int[] endpoints = new int[ 2 * distances.numCities() ];
+        for ( int city = 0; city < distances.numCities(); city++ )
         {
-            Deque<Integer> cityNearestNeighbors = new ArrayDeque<>();
-            cityNearestNeighbors.add( EMPTY );
-            cityNearestNeighbors.add( EMPTY );
-            for ( int neighbor = 0; neighbor < CITIES.length; neighbor++ )
-            {
-                if ( neighbor != city )
-                {
-                    if ( cityNearestNeighbors.peekFirst().equals( EMPTY ) || distance( CITIES[ city ], CITIES[ neighbor ] ) < distance( CITIES[ city ], CITIES[ cityNearestNeighbors.peekFirst() ] ) )
-                    {
-                        cityNearestNeighbors.removeLast();
-                        cityNearestNeighbors.addFirst( neighbor );
-                    }
-                    else if ( cityNearestNeighbors.peekLast().equals( EMPTY ) || distance( CITIES[ city ], CITIES[ neighbor ] ) < distance( CITIES[ city ], CITIES[ cityNearestNeighbors.peekLast() ] ) )
-                    {
-                        cityNearestNeighbors.removeLast();
-                        cityNearestNeighbors.addLast( neighbor );
-                    }
-                }
-            }
-            assert ! cityNearestNeighbors.peekFirst().equals( EMPTY );
-            assert ! cityNearestNeighbors.peekLast().equals(  EMPTY );
-            assert distance( CITIES[ city ], CITIES[ cityNearestNeighbors.peekFirst() ] ) <= distance( CITIES[ city ], CITIES[ cityNearestNeighbors.peekLast() ] );
-            neighbors.add( cityNearestNeighbors );
+            endpoints[ 2 * city     ] = distances.candidate( city, 0 );
+            endpoints[ 2 * city + 1 ] = distances.candidate( city, 1 );
         }
-        return neighbors;
+        return endpoints;
     }
 
     @Override
@@ -117,138 +116,149 @@ final public class LowerBoundNearestNeighbors implements LowerBound, Serializabl
     @Override
     public LowerBound make( TaskEuclideanTsp parentTask, Integer newCity ) 
     {
-        // make a copy of nearestNeighbors: List<Deque<Integer>>
-        final List<Deque<Integer>> copyNearestNeighbors = new ArrayList<>();
-        for ( Deque<Integer> nearestNeighbors : nearestNeighborsList )
+        final List<Integer> partialTour = parentTask.tour();
+        final int oldCity = partialTour.get( partialTour.size() - 1 );
+        return make( oldCity, newCity, partialTour.size() == 1, parentTask.unvisitedCities().size() == 1 );
+    }
+    
+    /**
+     * Make the lower bound of the partial tour extended from oldCity, its end, to newCity.
+     * @param oldCity the end of the partial tour.
+     * @param newCity an unvisited city.
+     * @param isFirstEdge true if and only if the partial tour is city 0 only.
+     * @param isLastEdge true if and only if newCity is the only unvisited city.
+     * @return the lower bound of the extended partial tour.
+     */
+    LowerBoundNearestNeighbors make( final int oldCity, final int newCity, final boolean isFirstEdge, final boolean isLastEdge )
+    {
+        final LowerBoundNearestNeighbors child = new LowerBoundNearestNeighbors( distances, endpoints, 0.0, EMPTY, EMPTY );
+        make( oldCity, newCity, isFirstEdge, isLastEdge, child );
+        return child;
+    }
+    
+    /**
+     * Set child to the lower bound of the partial tour extended from oldCity, its end, to newCity.
+     * @param oldCity the end of the partial tour.
+     * @param newCity an unvisited city.
+     * @param isFirstEdge true if and only if the partial tour is city 0 only.
+     * @param isLastEdge true if and only if newCity is the only unvisited city.
+     * @param child has this's distances and endpoints.
+     */
+    private void make( final int oldCity, final int newCity, final boolean isFirstEdge, final boolean isLastEdge, final LowerBoundNearestNeighbors child )
+    {
+        // replace old & new path endpoints' virtual edge w/ actual edge
+        int start = startNeighbor;
+        final int oldCitysVirtualEndpoint;
+        if ( isFirstEdge )
+        {   // city 0 has both of its virtual edges.
+            oldCitysVirtualEndpoint = newCity == nearest( 0 ) ? nearest( 0 ) : secondNearest( 0 );
+            start                   = newCity == nearest( 0 ) ? secondNearest( 0 ) : nearest( 0 );
+        }
+        else
         {
-            Deque<Integer> deque = new ArrayDeque<>();
-            Integer[] array = nearestNeighbors.toArray( new Integer[ 0 ] );
-            deque.addAll( Arrays.asList( array ) );
-            copyNearestNeighbors.add( deque );
+            oldCitysVirtualEndpoint = endNeighbor;
         }
-        // oldCity is the end of the existing path nearestNeighborsList incrementally with newCity
-        final List<Integer> partialTour = parentTask.tour();
-        final Integer oldCity = partialTour.get( partialTour.size() - 1 );
-        
-        // update nearestNeighborsList incrementally: replace old & new path endpoints' virtual edge w/ actual edge
-        final Integer oldCitysVirtualEndpoint = updateEndpoint( copyNearestNeighbors, oldCity, newCity );
-        assert copyNearestNeighbors.get( oldCity ).size() < 2 : "from " + oldCity + " to " + newCity + " " + copyNearestNeighbors.get( oldCity );
-        final Integer newCitysVirtualEndpoint = updateEndpoint( copyNearestNeighbors, newCity, oldCity );
-        assert copyNearestNeighbors.get( newCity ).size() < 2 : "from " + newCity + " to " + oldCity + " " + copyNearestNeighbors.get( newCity );
+        final int newCitysVirtualEndpoint = oldCity == nearest( newCity ) ? nearest( newCity ) : secondNearest( newCity );
+        int end                           = oldCity == nearest( newCity ) ? secondNearest( newCity ) : nearest( newCity );
         
         // update lowerBound incrementally
         double newLowerBound = lowerBound
-                + distance( CITIES[ oldCity ], CITIES[ newCity ] )
-                - (  distance( CITIES[ oldCity ], CITIES[ oldCitysVirtualEndpoint ] )
-                   + distance( CITIES[ newCity ], CITIES[ newCitysVirtualEndpoint ] )
+                + distance( oldCity, newCity )
+                - (  distance( oldCity, oldCitysVirtualEndpoint )
+                   + distance( newCity, newCitysVirtualEndpoint )
                   ) / 2.0;
-        if ( parentTask.unvisitedCities().size() == 1 )
+        if ( isLastEdge )
         {
-            // tour is complete: make lower bound equal the cost of the tour: tourDistance( CITIES, partialTour );
-            assert copyNearestNeighbors.get( 0 ).size() == 1 : copyNearestNeighbors.get( 0 );
-            assert copyNearestNeighbors.get( newCity ).size() == 1 : copyNearestNeighbors.get( newCity ) + " newCity: " + newCity + " oldCity: " + oldCity + " unvisited: " + parentTask.unvisitedCities() + " tour: " + parentTask.tour();
-            newLowerBound += distance( CITIES[ 0 ], CITIES[ newCity ] ); 
-            newLowerBound -= ( distance( CITIES[ 0 ], CITIES[ copyNearestNeighbors.get( 0 ).removeFirst() ] )
-                               + distance( CITIES[ newCity ], CITIES[ copyNearestNeighbors.get( newCity ).removeFirst() ] ) 
-                             ) / 2.0;
+            // tour is complete: make lower bound equal the cost of the tour.
+            newLowerBound += distance( 0, newCity ); 
+            newLowerBound -= ( distance( 0, start ) + distance( newCity, end ) ) / 2.0;
+            start = end = EMPTY;
         }
-        return new LowerBoundNearestNeighbors( copyNearestNeighbors, newLowerBound );
+        child.lowerBound = newLowerBound;
+        child.startNeighbor = start;
+        child.endNeighbor = end;
     }
+    
+    @Override
+    public Search search( final List<Integer> partialTour ) { return new SearchNearestNeighbors( this, partialTour.size() ); }
+    
     /**
-     * Update the nearestNeighbors data structure with new actual edge 
-     * (from path's old endpoint to its new endpoint city).
-     * @param nn nearestNeighbor data structure
-     * @param fromCity endpoint of old path
-     * @param toCity endpoint of new, extended path
-     * @return the city that is the endpoint of the virtual edge to be replaced by the actual edge.
+     * The lower bounds of the partial tours being searched, in a stack 
+     * whose elements are allocated once.
      */
-    private Integer updateEndpoint( final List<Deque<Integer>> nn, final Integer fromCity, final Integer toCity )
+    static final private class SearchNearestNeighbors implements Search
     {
-        if ( toCity.equals( nn.get( fromCity ).peekFirst() ) )
+        final private LowerBoundNearestNeighbors[] lowerBounds;
+        final private int tourSize; // of the partial tour at the bottom of the stack.
+              private int top;
+        
+        private SearchNearestNeighbors( final LowerBoundNearestNeighbors lowerBound, final int tourSize )
         {
-            return nn.get( fromCity ).removeFirst();
+            this.tourSize = tourSize;
+            lowerBounds = new LowerBoundNearestNeighbors[ lowerBound.distances.numCities() - tourSize + 1 ];
+            lowerBounds[ 0 ] = lowerBound;
+            for ( int i = 1; i < lowerBounds.length; i++ )
+            {
+                lowerBounds[ i ] = new LowerBoundNearestNeighbors( lowerBound.distances, lowerBound.endpoints, 0.0, EMPTY, EMPTY );
+            }
         }
-        else
+        
+        @Override
+        public double cost() { return lowerBounds[ top ].lowerBound; }
+        
+        @Override
+        public void make( final int oldCity, final int newCity )
         {
-            assert ! nn.get( fromCity ).isEmpty() : fromCity + " " + nn.get( fromCity );
-            return nn.get( fromCity ).removeLast();
+            final int size = tourSize + top;
+            lowerBounds[ top ].make( oldCity, newCity, size == 1, size == lowerBounds[ top ].distances.numCities() - 1, lowerBounds[ top + 1 ] );
+            top++;
         }
+        
+        @Override
+        public void unmake() { top--; }
     }
     
-    /*
-    ____________________________________________________________________________
-                The methods below are for debug ONLY
-    ____________________________________________________________________________
-    */
+    private int nearest( final int city ) { return endpoints[ 2 * city ]; }
     
-    public static void main( String[] args ) throws Exception
-    {
-        LowerBoundNearestNeighbors lowerBoundNearestNeighbors = new LowerBoundNearestNeighbors();
-        lowerBoundNearestNeighbors.initializeLowerBound();
-        for ( int city = 0; city < lowerBoundNearestNeighbors.nearestNeighborsList.size(); city++ )
-        {
-            Deque<Integer> deque = lowerBoundNearestNeighbors.nearestNeighborsList.get( city );
-            System.out.println("City " + city + ": " + deque.peekFirst() + " " + deque.peekLast() );
-        }
-        System.out.println("Lower bound: " + lowerBoundNearestNeighbors.lowerBound + " expecting 5.");
-    }
+    private int secondNearest( final int city ) { return endpoints[ 2 * city + 1 ]; }
+    
+    private double distance( final int city1, final int city2 ) { return distances.distance( city1, city2 ); }
     
-    private boolean nnEquals( final List<Deque<Integer>> nearestNeighbors, final List<Deque<Integer>> copyNearestNeighbors )
+    /**
+     * Only the fields that vary within a search are written, 
+     * unless distances is not TaskEuclideanTsp.DISTANCES.
+     * @param out
+     * @throws IOException 
+     */
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
     {
-        if ( nearestNeighbors.size() != copyNearestNeighbors.size() )
-        {
-            return false;
-        }
-        for ( int city = 0; city < nearestNeighbors.size(); city++ )
+        out.writeDouble( lowerBound );
+        out.writeInt( startNeighbor );
+        out.writeInt( endNeighbor );
+        out.writeBoolean( distances == TaskEuclideanTsp.DISTANCES );
+        if ( distances != TaskEuclideanTsp.DISTANCES )
         {
-            Deque<Integer> nnDeque = nearestNeighbors.get( city );
-            Deque<Integer> cpDeque = copyNearestNeighbors.get( city );
-            if ( nnDeque.size() != cpDeque.size() )
-            {
-                return false;
-            }
-            if ( nnDeque.isEmpty() )
-            {
-                return true;
-            }
-            assert 0 <= nnDeque.size() && nnDeque.size() <= 2;
-            if ( ! nnDeque.peekFirst().equals( cpDeque.peekFirst() ) )
-            {
-                return false;
-            }
-            if ( ! nnDeque.peekLast().equals( cpDeque.peekLast() ) )
-            {
-                return false;
-            }
+            out.writeObject( distances );
+            out.writeObject( endpoints );
         }
-        return true;
     }
     
-    /**
-     * Computes lower bound from scratch: not incrementally.
-    */
-    private double recomputeLowerBound( TaskEuclideanTsp task, Integer newCity )
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
     {
-        // contribution to lower bound of actual edges of partial path
-        List<Integer> partialTour = new ArrayList<>( task.tour() );
-        partialTour.add( newCity );
-        if ( task.unvisitedCities().size() == 1 )
+        lowerBound = in.readDouble();
+        startNeighbor = in.readInt();
+        endNeighbor = in.readInt();
+        if ( in.readBoolean() )
         {
-            assert newCity.equals( task.unvisitedCities().get( 0 ) );
-            return tourDistance( CITIES, partialTour ); 
+            distances = Root.ROOT.distances;
+            endpoints = Root.ROOT.endpoints;
         }
-        double cost = 2 * ( tourDistance( CITIES, partialTour ) - distance( CITIES[ 0 ], CITIES[ newCity ] ) );
-        
-        // contribution to lower bound of lower bound edges of endpoints of partial path
-        cost += distance( CITIES[ 0 ], CITIES[ nearestNeighborsList.get( 0 ).peekFirst() ] );
-        cost += distance( CITIES[ newCity ], CITIES[ nearestNeighborsList.get( newCity ).peekFirst() ] );
-        
-        // contribution to lower bound of unvisited cities
-        for ( Integer unvisitedCity : task.unvisitedCities() )
+        else
         {
-            cost += distance( CITIES[ unvisitedCity ], CITIES[ nearestNeighborsList.get( unvisitedCity ).peekFirst() ] );
-            cost += distance( CITIES[ unvisitedCity ], CITIES[ nearestNeighborsList.get( unvisitedCity ).peekLast() ] );
+            distances = (Distances) in.readObject();
+            endpoints = (int[]) in.readObject();
         }
-        return cost / 2.0;
     }
 }
@@ -0,0 +1,401 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package applications.euclideantsp;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+import util.Distances;
+
+/**
+ * The Held-Karp lower bound: a minimum spanning tree whose edge costs are 
+ * adjusted by Lagrangian multipliers, one per city, that are found by 
+ * subgradient optimization.
+ * 
+ * The partial tour from city 0 to its end city is completed by a 
+ * Hamiltonian path from its end, through the unvisited cities, to city 0. 
+ * With edge cost d( i, j ) + pi[ i ] + pi[ j ], such a path costs at least 
+ * as much as a minimum spanning tree of those cities; the lower bound is 
+ * the cost of the partial tour, plus the cost of that tree, less the sum, 
+ * over those cities, of pi[ city ] times its degree in a path: 
+ * 1 for the end city and city 0; 2 for the others. 
+ * For the partial tour that is city 0 only, the tree is a minimum 1-tree.
+ * 
+ * A child starts its subgradient optimization from its parent's multipliers; 
+ * its lower bound is at least its parent's.
+ * @author Peter Cappello
+ */
+final public class LowerBoundOneTree implements LowerBound, Externalizable 
+{
+    static final private int ROOT_ITERATIONS  = 100;
+    static final private int CHILD_ITERATIONS = 10;
+    static final private double STEP  = 0.01; // initial multiplier step, relative to the mean edge cost.
+    static final private double DECAY = 0.9;  // of the step, per iteration.
+    static final private double EPSILON = 1E-9;
+    
+    private Distances distances;
+    private double[] pi;    // the Lagrangian multipliers: immutable once made.
+    private double partialTourCost;
+    private double lowerBound;
+    
+    /**
+     * For Externalizable: readExternal sets the fields; the root bound is not computed.
+     */
+    public LowerBoundOneTree() {}
+    
+    /**
+     * The lower bound of the tours of TaskEuclideanTsp.CITIES that start with city 0.
+     * It is immutable, so it is computed once, and shared.
+     * @return the root lower bound.
+     */
+    static public LowerBoundOneTree root() { return Root.ROOT; }
+    
+    /**
+     * Initialized on first use: TaskEuclideanTsp may initialize its root Task with this class.
+     */
+    static private class Root
+    {
+        static final private LowerBoundOneTree ROOT = new LowerBoundOneTree( TaskEuclideanTsp.DISTANCES );
+    }
+    
+    /**
+     * The lower bound of the tours of a graph that start with city 0.
+     * @param distances of the graph.
+     */
+    public LowerBoundOneTree( final Distances distances )
+    {
+        this.distances = distances;
+        pi = new double[ distances.numCities() ];
+        final boolean[] isInPartialTour = new boolean[ distances.numCities() ];
+        isInPartialTour[ 0 ] = true;
+        lowerBound = new SpanningTree( distances ).lowerBound( isInPartialTour, 0, pi, ROOT_ITERATIONS );
+    }
+    
+    private LowerBoundOneTree( final Distances distances, final double[] pi, final double partialTourCost, final double lowerBound ) 
+    {
+        this.distances = distances;
+        this.pi = pi;
+        this.partialTourCost = partialTourCost;
+        this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public double cost() { return lowerBound; }
+    
+    @Override
+    public LowerBound make( TaskEuclideanTsp parentTask, Integer newCity ) 
+    {
+        final List<Integer> partialTour = parentTask.tour();
+        final int oldCity = partialTour.get( partialTour.size() - 1 );
+        final double childPartialTourCost = partialTourCost + distances.distance( oldCity, newCity );
+        if ( partialTour.size() + 1 == distances.numCities() )
+        {   // tour is complete: make lower bound equal the cost of the tour.
+            return new LowerBoundOneTree( distances, pi, childPartialTourCost, childPartialTourCost + distances.distance( newCity, 0 ) );
+        }
+        final boolean[] isInPartialTour = new boolean[ distances.numCities() ];
+        partialTour.stream().forEach( city -> isInPartialTour[ city ] = true );
+        isInPartialTour[ newCity ] = true;
+        final double[] childPi = pi.clone();
+        final double childLowerBound = childPartialTourCost 
+                + new SpanningTree( distances ).lowerBound( isInPartialTour, newCity, childPi, CHILD_ITERATIONS );
+        return new LowerBoundOneTree( distances, childPi, childPartialTourCost, Math.max( lowerBound, childLowerBound ) );
+    }
+    
+    @Override
+    public Search search( final List<Integer> partialTour ) { return new SearchOneTree( this, partialTour ); }
+    
+    /**
+     * Only the fields that vary within a search are written, 
+     * unless distances is not TaskEuclideanTsp.DISTANCES.
+     * @param out
+     * @throws IOException 
+     */
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        out.writeDouble( partialTourCost );
+        out.writeDouble( lowerBound );
+        out.writeObject( pi );
+        out.writeBoolean( distances == TaskEuclideanTsp.DISTANCES );
+        if ( distances != TaskEuclideanTsp.DISTANCES )
+        {
+            out.writeObject( distances );
+        }
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        partialTourCost = in.readDouble();
+        lowerBound = in.readDouble();
+        pi = (double[]) in.readObject();
+        distances = in.readBoolean() ? TaskEuclideanTsp.DISTANCES : (Distances) in.readObject();
+    }
+    
+    /**
+     * Minimum spanning trees, by Prim's algorithm on the complete graph, 
+     * with work arrays that are reused.
+     */
+    static final private class SpanningTree
+    {
+        final private Distances distances;
+        final private int[] cities;   // of the tree.
+        final private double[] key;   // the cost of the cheapest edge from a city to the tree.
+        final private int[] parent;   // the tree city at the other end of that edge.
+        final private int[] degree;
+        
+        private SpanningTree( final Distances distances )
+        {
+            this.distances = distances;
+            cities = new int[ distances.numCities() ];
+            key    = new double[ distances.numCities() ];
+            parent = new int[ distances.numCities() ];
+            degree = new int[ distances.numCities() ];
+        }
+        
+        /**
+         * Optimize pi by subgradient steps.
+         * @param isInPartialTour the cities of the partial tour.
+         * @param endCity the end of the partial tour: 0, if the partial tour is city 0 only.
+         * @param pi the multipliers: updated.
+         * @param iterations the number of subgradient steps.
+         * @return the largest lower bound found on the cost of completing the partial tour.
+         */
+        private double lowerBound( final boolean[] isInPartialTour, final int endCity, final double[] pi, final int iterations )
+        {
+            // the tree's cities are the unvisited cities, the end city, and city 0.
+            int numCities = 0;
+            for ( int city = 0; city < isInPartialTour.length; city++ )
+            {
+                if ( ! isInPartialTour[ city ] || city == endCity || city == 0 )
+                {
+                    cities[ numCities++ ] = city;
+                }
+            }
+            double bestLowerBound = Double.NEGATIVE_INFINITY;
+            double step = 0.0;
+            for ( int iteration = 0; iteration < iterations; iteration++ )
+            {
+                final double lowerBound = endCity == 0 ? oneTree( numCities, pi ) : tree( numCities, endCity, pi );
+                bestLowerBound = Math.max( bestLowerBound, lowerBound );
+                int norm = 0;
+                for ( int i = 0; i < numCities; i++ )
+                {
+                    final int excess = degree[ cities[ i ] ] - targetDegree( cities[ i ], endCity );
+                    norm += excess * excess;
+                }
+                if ( norm == 0 )
+                {   // the tree is a Hamiltonian path (cycle): it is optimal.
+                    break;
+                }
+                step = iteration == 0 ? STEP * Math.abs( lowerBound ) / numCities : step * DECAY;
+                for ( int i = 0; i < numCities; i++ )
+                {
+                    pi[ cities[ i ] ] += step * ( degree[ cities[ i ] ] - targetDegree( cities[ i ], endCity ) );
+                }
+            }
+            return bestLowerBound - EPSILON;
+        }
+        
+        private int targetDegree( final int city, final int endCity ) { return city == endCity || city == 0 ? 1 : 2; }
+        
+        /**
+         * A minimum spanning tree of cities[ 0, numCities ), with degree targets 
+         * 1 for the end city and city 0, and 2 for the others.
+         * @return its adjusted cost, less the sum of pi times the target degrees.
+         */
+        private double tree( final int numCities, final int endCity, final double[] pi )
+        {
+            double cost = prim( 0, numCities, pi );
+            for ( int i = 0; i < numCities; i++ )
+            {
+                cost -= targetDegree( cities[ i ], endCity ) * pi[ cities[ i ] ];
+            }
+            return cost;
+        }
+        
+        /**
+         * A minimum 1-tree: a minimum spanning tree of the cities other than city 0, 
+         * plus the 2 cheapest edges from city 0. City 0 is cities[ 0 ].
+         * @return its adjusted cost, less twice the sum of pi.
+         */
+        private double oneTree( final int numCities, final double[] pi )
+        {
+            double cost = prim( 1, numCities, pi );
+            double cheapest = Double.MAX_VALUE;
+            double nextCheapest = Double.MAX_VALUE;
+            for ( int i = 1; i < numCities; i++ )
+            {
+                final double edgeCost = distances.distance( 0, cities[ i ] ) + pi[ 0 ] + pi[ cities[ i ] ];
+                if ( edgeCost < cheapest )
+                {
+                    nextCheapest = cheapest;
+                    cheapest = edgeCost;
+                }
+                else if ( edgeCost < nextCheapest )
+                {
+                    nextCheapest = edgeCost;
+                }
+            }
+            for ( int i = 1; i < numCities; i++ )
+            {   // the degree of the endpoints of those edges, 1 more: recompute, on ties.
+                final double edgeCost = distances.distance( 0, cities[ i ] ) + pi[ 0 ] + pi[ cities[ i ] ];
+                if ( edgeCost == cheapest || edgeCost == nextCheapest )
+                {
+                    degree[ cities[ i ] ]++;
+                }
+            }
+            degree[ 0 ] = 2;
+            cost += cheapest + nextCheapest;
+            for ( int i = 0; i < numCities; i++ )
+            {
+                cost -= 2 * pi[ cities[ i ] ];
+            }
+            return cost;
+        }
+        
+        /**
+         * Prim's algorithm on cities[ first, numCities ); sets the degree of each.
+         * @return the adjusted cost of the minimum spanning tree.
+         */
+        private double prim( final int first, final int numCities, final double[] pi )
+        {
+            for ( int i = first; i < numCities; i++ )
+            {
+                key[ cities[ i ] ] = Double.MAX_VALUE;
+                degree[ cities[ i ] ] = 0;
+            }
+            double cost = 0.0;
+            int city = cities[ first ];
+            for ( int last = numCities - 1; first < last; last-- )
+            {   // cities[ last + 1, numCities ) are in the tree; move city there.
+                swap( first, indexOf( city, first, last ) );
+                swap( first, last );
+                int nearest = -1;
+                for ( int i = first; i < last; i++ )
+                {
+                    final int other = cities[ i ];
+                    final double edgeCost = distances.distance( city, other ) + pi[ city ] + pi[ other ];
+                    if ( edgeCost < key[ other ] )
+                    {
+                        key[ other ] = edgeCost;
+                        parent[ other ] = city;
+                    }
+                    if ( nearest < 0 || key[ other ] < key[ nearest ] )
+                    {
+                        nearest = other;
+                    }
+                }
+                cost += key[ nearest ];
+                degree[ nearest ]++;
+                degree[ parent[ nearest ] ]++;
+                city = nearest;
+            }
+            return cost;
+        }
+        
+        private int indexOf( final int city, final int first, final int last )
+        {
+            int i = first;
+            while ( cities[ i ] != city && i < last ) 
+            {
+                i++;
+            }
+            return i;
+        }
+        
+        private void swap( final int i, final int j )
+        {
+            final int city = cities[ i ];
+            cities[ i ] = cities[ j ];
+            cities[ j ] = city;
+        }
+    }
+    
+    /**
+     * The lower bounds of the partial tours being searched: their multipliers 
+     * are in a stack of arrays that are allocated once.
+     */
+    static final private class SearchOneTree implements Search
+    {
+        final private Distances distances;
+        final private SpanningTree spanningTree;
+        final private boolean[] isInPartialTour;
+        final private double[][] pis;
+        final private double[] partialTourCosts;
+        final private double[] lowerBounds;
+        final private int[] newCities;
+        final private int tourSize; // of the partial tour at the bottom of the stack.
+              private int top;
+        
+        private SearchOneTree( final LowerBoundOneTree lowerBound, final List<Integer> partialTour )
+        {
+            distances = lowerBound.distances;
+            spanningTree = new SpanningTree( distances );
+            isInPartialTour = new boolean[ distances.numCities() ];
+            partialTour.stream().forEach( city -> isInPartialTour[ city ] = true );
+            tourSize = partialTour.size();
+            final int depth = distances.numCities() - tourSize + 1;
+            pis = new double[ depth ][];
+            pis[ 0 ] = lowerBound.pi;
+            for ( int i = 1; i < depth; i++ )
+            {
+                pis[ i ] = new double[ distances.numCities() ];
+            }
+            partialTourCosts = new double[ depth ];
+            partialTourCosts[ 0 ] = lowerBound.partialTourCost;
+            lowerBounds = new double[ depth ];
+            lowerBounds[ 0 ] = lowerBound.lowerBound;
+            newCities = new int[ depth ];
+        }
+        
+        @Override
+        public double cost() { return lowerBounds[ top ]; }
+        
+        @Override
+        public void make( final int oldCity, final int newCity )
+        {
+            partialTourCosts[ top + 1 ] = partialTourCosts[ top ] + distances.distance( oldCity, newCity );
+            isInPartialTour[ newCity ] = true;
+            newCities[ top + 1 ] = newCity;
+            if ( tourSize + top + 1 == distances.numCities() )
+            {   // tour is complete: make lower bound equal the cost of the tour.
+                lowerBounds[ top + 1 ] = partialTourCosts[ top + 1 ] + distances.distance( newCity, 0 );
+            }
+            else
+            {
+                System.arraycopy( pis[ top ], 0, pis[ top + 1 ], 0, pis[ top ].length );
+                final double lowerBound = partialTourCosts[ top + 1 ] 
+                        + spanningTree.lowerBound( isInPartialTour, newCity, pis[ top + 1 ], CHILD_ITERATIONS );
+                lowerBounds[ top + 1 ] = Math.max( lowerBounds[ top ], lowerBound );
+            }
+            top++;
+        }
+        
+        @Override
+        public void unmake() { isInPartialTour[ newCities[ top-- ] ] = false; }
+    }
+}
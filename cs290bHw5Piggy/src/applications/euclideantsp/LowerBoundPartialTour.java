@@ -23,10 +23,12 @@
  */
 package applications.euclideantsp;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
-import static util.EuclideanGraph.distance;
+import util.Distances;
 import static util.EuclideanGraph.tourDistance;
 
 /**
@@ -35,24 +37,25 @@ import static util.EuclideanGraph.tourDistance;
  */
 final public class LowerBoundPartialTour implements LowerBound, Serializable
 {
-    static final private double[][] CITIES = TaskEuclideanTsp.CITIES;
            final private double lowerBound;
+           private transient Distances distances;
     
-    public LowerBoundPartialTour( final List<Integer> partialTour )
+    public LowerBoundPartialTour( final List<Integer> partialTour ) { this( TaskEuclideanTsp.DISTANCES, partialTour ); }
+    
+    public LowerBoundPartialTour( final Distances distances, final List<Integer> partialTour )
     {
-        lowerBound = tourDistance( CITIES, partialTour );;
+        this.distances = distances;
+        lowerBound = tourDistance( distances, partialTour );
     }
     
-    private LowerBoundPartialTour( final TaskEuclideanTsp parentTask, final Integer newCity )
+    private LowerBoundPartialTour( final LowerBoundPartialTour parent, final Integer oldEndCity, final Integer newCity )
     {
-        List<Integer> partialTour = new ArrayList( parentTask.tour() );
-        
         // compute lower bound in O(1) time using parent lower bound
-        final Integer oldEndCity = partialTour.get( partialTour.size() - 1 );
-        lowerBound = parentTask.lowerBound().cost()
-                   - distance( CITIES[ 0 ], CITIES[ oldEndCity ] )
-                   + distance( CITIES[ 0 ], CITIES[ newCity ] )
-                   + distance( CITIES[ oldEndCity ], CITIES[ newCity ] );
+        distances = parent.distances;
+        lowerBound = parent.lowerBound
+                   - distances.distance( 0, oldEndCity )
+                   + distances.distance( 0, newCity )
+                   + distances.distance( oldEndCity, newCity );
     }
     
     @Override
@@ -61,6 +64,59 @@ final public class LowerBoundPartialTour implements LowerBound, Serializable
     @Override
     public LowerBound make( TaskEuclideanTsp parentTask, Integer newCity ) 
     {    
-        return new LowerBoundPartialTour( parentTask, newCity );
+        final List<Integer> partialTour = parentTask.tour();
+        return new LowerBoundPartialTour( this, partialTour.get( partialTour.size() - 1 ), newCity );
+    }
+    
+    @Override
+    public Search search( final List<Integer> partialTour ) { return new SearchPartialTour( distances, lowerBound ); }
+    
+    /**
+     * The distances are written only if they are not TaskEuclideanTsp.DISTANCES.
+     */
+    private void writeObject( final ObjectOutputStream out ) throws IOException
+    {
+        out.defaultWriteObject();
+        out.writeObject( distances == TaskEuclideanTsp.DISTANCES ? null : distances );
+    }
+    
+    private void readObject( final ObjectInputStream in ) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        final Distances written = (Distances) in.readObject();
+        distances = written == null ? TaskEuclideanTsp.DISTANCES : written;
+    }
+    
+    /**
+     * The lower bounds of the partial tours being searched, in a stack.
+     */
+    static final private class SearchPartialTour implements Search
+    {
+        final private Distances distances;
+        final private double[] lowerBounds;
+              private int top;
+        
+        private SearchPartialTour( final Distances distances, final double lowerBound ) 
+        { 
+            this.distances = distances;
+            lowerBounds = new double[ distances.numCities() ];
+            lowerBounds[ 0 ] = lowerBound; 
+        }
+        
+        @Override
+        public double cost() { return lowerBounds[ top ]; }
+        
+        @Override
+        public void make( final int oldEndCity, final int newCity )
+        {
+            lowerBounds[ top + 1 ] = lowerBounds[ top ]
+                                   - distances.distance( 0, oldEndCity )
+                                   + distances.distance( 0, newCity )
+                                   + distances.distance( oldEndCity, newCity );
+            top++;
+        }
+        
+        @Override
+        public void unmake() { top--; }
     }
 }
@@ -24,26 +24,34 @@
 package applications.euclideantsp;
 
 import api.ReturnValue;
-import api.TaskCompose;
+import api.TaskComposeFold;
+import java.io.Externalizable;
 
 /**
  *
  * @author Peter Cappello
  */
-public class MinTour extends TaskCompose<Tour>
+public class MinTour extends TaskComposeFold<Tour> implements Externalizable
 {
+    /**
+     * @param shortestTour the shortest tour so far; null before the first.
+     * @param tour
+     * @return the shorter tour.
+     */
+    @Override
+    protected Tour fold( final Tour shortestTour, final Tour tour ) 
+    { 
+        return shortestTour == null || tour.compareTo( shortestTour ) < 0 ? tour : shortestTour; 
+    }
+    
     @Override
     public ReturnValue call() 
     {
-        assert args().get( 0 ) != null;
-        Tour shortestTour = args().remove( 0 );
-        for ( Tour tour : args() ) 
-        {
-            if ( tour.compareTo( shortestTour ) < 0 )
-            {
-                shortestTour = tour;
-            }
+        if ( accumulator() == null )
+        {   // every child was pruned: no tour is shorter than the shared tour.
+            final SharedTour sharedTour = ( SharedTour ) shared();
+            return new ReturnValueTour( this, new Tour( sharedTour.tour(), sharedTour.cost() ) );
         }
-        return new ReturnValueTour( this, shortestTour );
+        return new ReturnValueTour( this, accumulator() );
     }
 }
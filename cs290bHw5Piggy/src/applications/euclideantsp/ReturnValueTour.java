@@ -29,6 +29,7 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.io.Externalizable;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -40,10 +41,12 @@ import system.Task;
  *
  * @author Peter Cappello
  */
-public class ReturnValueTour extends ReturnValue<Tour>
+public class ReturnValueTour extends ReturnValue<Tour> implements Externalizable
 {
     static final private int NUM_PIXELS = 600;
     
+    public ReturnValueTour() {}
+    
     ReturnValueTour( final Task task, final Tour tour ) { super( task, tour ); }
     
     @Override
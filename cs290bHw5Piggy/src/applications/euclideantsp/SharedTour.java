@@ -24,16 +24,23 @@
 package applications.euclideantsp;
 
 import api.Shared;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 
  * @author Peter Cappello
  */
-final public class SharedTour extends Shared<SharedTour>
+final public class SharedTour extends Shared<SharedTour> implements Externalizable
 {
-    private final List<Integer> tour;
-    private final double cost;
+    private List<Integer> tour;
+    private double cost;
+    
+    public SharedTour() {}
     
     /**
      *
@@ -52,4 +59,23 @@ final public class SharedTour extends Shared<SharedTour>
     public List<Integer> tour() { return tour; }
     
     public double cost() { return cost; }
+    
+    @Override
+    public String toString() { return tour.toString() + "\n\tCost: " + cost; }
+    
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        Tour.writeCities( out, tour );
+        out.writeDouble( cost );
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        tour = Tour.readCities( in, new ArrayList<>() );
+        cost = in.readDouble();
+    }
 }
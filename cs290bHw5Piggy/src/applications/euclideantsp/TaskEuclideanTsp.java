@@ -24,15 +24,26 @@
 package applications.euclideantsp;
 
 import api.JobRunner;
+import api.Prunable;
 import api.ReturnDecomposition;
 import api.ReturnValue;
 import api.Shared;
+import system.Return;
 import system.Task;
 import api.TaskRecursive;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Stack;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import util.Distances;
 import util.EuclideanGraph;
 import static util.EuclideanGraph.tourDistance;
 
@@ -41,7 +52,7 @@ import static util.EuclideanGraph.tourDistance;
  followed by city secondCity.
  * @author Peter Cappello
  */
-public class TaskEuclideanTsp extends TaskRecursive<Tour>
+public class TaskEuclideanTsp extends TaskRecursive<Tour> implements Prunable, Externalizable
 { 
     // Configure Job
     static final public double[][] CITIES =
@@ -63,28 +74,44 @@ public class TaskEuclideanTsp extends TaskRecursive<Tour>
 //	{ 5, 5 },
 	{ 4, 5 }
     };
+    static final public Distances DISTANCES = EuclideanGraph.distances( CITIES );
     static final private String FRAME_TITLE = "Euclidean TSP";
-    static final private Task TASK = new TaskEuclideanTsp();
-    static final private List<Integer> GREEDY_TOUR = EuclideanGraph.greedyTour( CITIES ) ;
-    static private final double UPPER_BOUND = tourDistance( CITIES, GREEDY_TOUR );
+    static final private Task TASK = new TaskEuclideanTsp( LowerBoundOneTree.root() );
+    static final private List<Integer> GREEDY_TOUR = EuclideanGraph.greedyTour( DISTANCES ) ;
+    static private final double UPPER_BOUND = tourDistance( DISTANCES, GREEDY_TOUR );
     static private final Shared SHARED = new SharedTour( GREEDY_TOUR, UPPER_BOUND );
     
     public static void main( final String[] args ) throws Exception
     {
-        new JobRunner( FRAME_TITLE, args ).run( TASK, SHARED );
+        new JobRunner( FRAME_TITLE, args ).run( TASK, SHARED, true );
     }
     
     static final Integer ONE = 1;
     static final Integer TWO = 2;
     static final Integer MAX_UNVISITED_CITIES = 12;
+    static final public SearchStrategy SEARCH_STRATEGY = SearchStrategy.DEPTH_FIRST;
     
     private List<Integer> partialTour;
     private List<Integer> unvisitedCities;
     private LowerBound lowerBound;
     private boolean partialTourContains1;
+    private SearchStrategy searchStrategy;
     private boolean pruneMe;
             
-    public TaskEuclideanTsp()
+    public TaskEuclideanTsp() {}
+    
+    /**
+     * The root task: tours that start with city 0.
+     * @param lowerBound the lower bound of the root task, e.g., LowerBoundOneTree.root().
+     */
+    public TaskEuclideanTsp( final LowerBound lowerBound ) { this( lowerBound, SEARCH_STRATEGY ); }
+    
+    /**
+     * The root task: tours that start with city 0.
+     * @param lowerBound the lower bound of the root task, e.g., LowerBoundOneTree.root().
+     * @param searchStrategy of the atomic tasks.
+     */
+    public TaskEuclideanTsp( final LowerBound lowerBound, final SearchStrategy searchStrategy )
     {
         partialTour = new ArrayList<>();
         partialTour.add( 0 );
@@ -93,12 +120,13 @@ public class TaskEuclideanTsp extends TaskRecursive<Tour>
         {
             unvisitedCities.add( city );
         }
-        lowerBound = new LowerBoundNearestNeighbors();
-//        lowerBound = new LowerBoundPartialTour( partialTour );
+        this.lowerBound = lowerBound;
+        this.searchStrategy = searchStrategy;
     }
     
     TaskEuclideanTsp( TaskEuclideanTsp parentTask, Integer newCity )
     {
+        searchStrategy = parentTask.searchStrategy;
         if ( ! parentTask.partialTourContains1 && newCity.equals( TWO ) )
         {
             pruneMe = true;
@@ -109,46 +137,290 @@ public class TaskEuclideanTsp extends TaskRecursive<Tour>
         unvisitedCities = new LinkedList<>( parentTask.unvisitedCities ); 
         partialTour.add( newCity );
         unvisitedCities.remove( newCity );
-        if ( newCity.equals( ONE ) )
-        {
-            partialTourContains1 = true;
-        }
+        partialTourContains1 = parentTask.partialTourContains1 || newCity.equals( ONE );
     }
     
     @Override public boolean isAtomic() { return unvisitedCities.size() <= MAX_UNVISITED_CITIES; }
     
+    @Override public boolean isSolvable() { return true; }
+    
     /**
      * Produce a tour of minimum cost from the set of tours, having as its
      * elements each tour consisting of the sequence of cities in partial tour 
      * followed by a permutation of the unvisited cities.
+     * The search is in place, in this task's SearchStrategy.
      * @return a tour of minimum cost.
      */
      @Override public ReturnValue solve() 
     {
-        final Stack<TaskEuclideanTsp> stack = new Stack<>();
-        stack.push( this );
-        SharedTour sharedTour = ( SharedTour ) shared();
-        List<Integer> shortestTour = sharedTour.tour();
-        double shortestTourCost = sharedTour.cost();
-        while ( ! stack.isEmpty() ) 
-        {
-            TaskEuclideanTsp currentTask = stack.pop();
-            List<TaskEuclideanTsp> children = currentTask.children( shortestTourCost );
-            for ( TaskEuclideanTsp child : children )
-            {   // child lower bound < upper bound.
-                if ( child.isComplete() )
-                { 
-                    shortestTour = child.tour();
-                    shortestTourCost = child.lowerBound().cost();
-                } 
-                else 
-                { 
-                    stack.push( child );
-                } 
-            }  
-        } 
-        shared( new SharedTour( shortestTour, shortestTourCost ) );
-        return new ReturnValueTour( this, new Tour( shortestTour, shortestTourCost ) );
+        final SharedTour sharedTour = ( SharedTour ) shared();
+        final Search search = new Search( this, sharedTour.cost() );
+        search.search( searchStrategy, partialTourContains1 );
+        final List<Integer> shortestTour = search.shortestTour == null ? sharedTour.tour() : search.shortestTour();
+        shared( new SharedTour( shortestTour, search.shortestTourCost ) );
+        return new ReturnValueTour( this, new Tour( shortestTour, search.shortestTourCost ) );
+    }
+     
+    /**
+     * The order in which solve searches the tours that extend a partial tour.
+     */
+    public enum SearchStrategy 
+    {
+        /**
+         * Depth-first; children in the order that a stack of TaskEuclideanTsp 
+         * objects, pushed in unvisitedCities order, would search them.
+         */
+        DEPTH_FIRST,
+        
+        /**
+         * Depth-first; children in order of increasing lower bound.
+         */
+        SORTED_DEPTH_FIRST,
+        
+        /**
+         * Best-first: the partial tour of least lower bound is expanded next.
+         * When the frontier holds MAX_FRONTIER partial tours, 
+         * a partial tour is searched sorted depth-first instead.
+         */
+        BEST_FIRST,
+        
+        /**
+         * Best-first, for the partial tours of at most HYBRID_DEPTH cities 
+         * more than the task's; sorted depth-first below them.
+         */
+        HYBRID
+    }
+    
+    static final private int MAX_FRONTIER = 1 << 16;
+    static final private int HYBRID_DEPTH = 3;
+    static final private int CANCEL_CHECK_PERIOD = 1 << 12; // partial tours made between checks: a power of 2.
+     
+    /**
+     * A search of the tours that extend a partial tour, 
+     * over primitive arrays: make extends the partial tour; unmake undoes it.
+     * If the task's job is cancelled, the search is abandoned.
+     */
+    static final private class Search
+    {
+        final private TaskEuclideanTsp task;
+        final private int[] tour = new int[ CITIES.length ];
+        final private boolean[] isVisited = new boolean[ CITIES.length ];
+        final private LowerBound.Search lowerBound;
+        final private int[][] children = new int[ CITIES.length ][ CITIES.length ];       // per size, when sorted.
+        final private double[][] childCosts = new double[ CITIES.length ][ CITIES.length ]; // their lower bounds.
+        final private int partialTourSize; // of the task.
+              private int size;            // of the partial tour that lowerBound bounds.
+              private int[] shortestTour;
+              private double shortestTourCost;
+              private int numMakes;
+        
+        private Search( final TaskEuclideanTsp task, final double upperBound )
+        {
+            this.task = task;
+            for ( int i = 0; i < task.partialTour.size(); i++ )
+            {
+                tour[ i ] = task.partialTour.get( i );
+                isVisited[ tour[ i ] ] = true;
+            }
+            lowerBound = task.lowerBound.search( task.partialTour );
+            partialTourSize = size = task.partialTour.size();
+            shortestTourCost = upperBound;
+        }
+        
+        private void search( final SearchStrategy searchStrategy, final boolean partialTourContains1 )
+        {
+            switch ( searchStrategy )
+            {
+                case DEPTH_FIRST:        depthFirst( partialTourContains1 ); break;
+                case SORTED_DEPTH_FIRST: sortedDepthFirst( partialTourContains1 ); break;
+                case BEST_FIRST:         bestFirst( partialTourContains1, CITIES.length ); break;
+                case HYBRID:             bestFirst( partialTourContains1, HYBRID_DEPTH ); break;
+            }
+        }
+        
+        private boolean isChild( final int newCity, final boolean partialTourContains1 )
+        {
+            return ! isVisited[ newCity ] && ( partialTourContains1 || newCity != TWO );
+        }
+        
+        private void make( final int newCity )
+        {
+            if ( ( ++numMakes & CANCEL_CHECK_PERIOD - 1 ) == 0 && task.isCancelled() )
+            {
+                throw new CancellationException();
+            }
+            lowerBound.make( tour[ size - 1 ], newCity );
+            tour[ size++ ] = newCity;
+            isVisited[ newCity ] = true;
+        }
+        
+        private void unmake()
+        {
+            lowerBound.unmake();
+            isVisited[ tour[ --size ] ] = false;
+        }
+        
+        /**
+         * Search the tours that extend tour[ 0, size ), in DEPTH_FIRST order.
+         * @param partialTourContains1 
+         */
+        private void depthFirst( final boolean partialTourContains1 )
+        {
+            for ( int newCity = CITIES.length - 1; newCity > 0; newCity-- )
+            {
+                if ( isChild( newCity, partialTourContains1 ) )
+                {
+                    make( newCity );
+                    if ( lowerBound.cost() < shortestTourCost )
+                    {
+                        if ( size == CITIES.length )
+                        {
+                            shortest();
+                        }
+                        else
+                        {
+                            depthFirst( partialTourContains1 || newCity == ONE );
+                        }
+                    }
+                    unmake();
+                }
+            }
+        }
+        
+        /**
+         * Search the tours that extend tour[ 0, size ), in SORTED_DEPTH_FIRST order.
+         * A child's lower bound is computed twice: to sort, and to search it.
+         * @param partialTourContains1 
+         */
+        private void sortedDepthFirst( final boolean partialTourContains1 )
+        {
+            final int[] sizeChildren = children[ size ];
+            final double[] costs = childCosts[ size ];
+            int numChildren = 0;
+            for ( int newCity = CITIES.length - 1; newCity > 0; newCity-- )
+            {
+                if ( isChild( newCity, partialTourContains1 ) )
+                {
+                    make( newCity );
+                    final double cost = lowerBound.cost();
+                    unmake();
+                    if ( cost < shortestTourCost )
+                    {   // insertion sort: stable.
+                        int i = numChildren++;
+                        for ( ; i > 0 && cost < costs[ i - 1 ]; i-- )
+                        {
+                            sizeChildren[ i ] = sizeChildren[ i - 1 ];
+                            costs[ i ] = costs[ i - 1 ];
+                        }
+                        sizeChildren[ i ] = newCity;
+                        costs[ i ] = cost;
+                    }
+                }
+            }
+            for ( int i = 0; i < numChildren && costs[ i ] < shortestTourCost; i++ )
+            {
+                final int newCity = sizeChildren[ i ];
+                make( newCity );
+                if ( size == CITIES.length )
+                {
+                    shortest();
+                }
+                else
+                {
+                    sortedDepthFirst( partialTourContains1 || newCity == ONE );
+                }
+                unmake();
+            }
+        }
+        
+        /**
+         * Search the tours that extend tour[ 0, size ), best-first.
+         * A partial tour taken from the frontier is made again from the task's.
+         * @param partialTourContains1 
+         * @param maxDepth the partial tours of more than maxDepth cities more 
+         * than the task's are searched sorted depth-first.
+         */
+        private void bestFirst( final boolean partialTourContains1, final int maxDepth )
+        {
+            final PriorityQueue<Node> frontier = new PriorityQueue<>();
+            frontier.add( new Node( tour, size, lowerBound.cost(), partialTourContains1 ) );
+            while ( ! frontier.isEmpty() && frontier.peek().cost < shortestTourCost )
+            {
+                final Node node = frontier.poll();
+                while ( size > partialTourSize )
+                {
+                    unmake();
+                }
+                for ( int i = partialTourSize; i < node.tour.length; i++ )
+                {
+                    make( node.tour[ i ] );
+                }
+                if ( size - partialTourSize >= maxDepth || frontier.size() >= MAX_FRONTIER )
+                {
+                    sortedDepthFirst( node.partialTourContains1 );
+                    continue;
+                }
+                for ( int newCity = CITIES.length - 1; newCity > 0; newCity-- )
+                {
+                    if ( isChild( newCity, node.partialTourContains1 ) )
+                    {
+                        make( newCity );
+                        if ( lowerBound.cost() < shortestTourCost )
+                        {
+                            if ( size == CITIES.length )
+                            {
+                                shortest();
+                            }
+                            else
+                            {
+                                frontier.add( new Node( tour, size, lowerBound.cost(), node.partialTourContains1 || newCity == ONE ) );
+                            }
+                        }
+                        unmake();
+                    }
+                }
+            }
+            while ( size > partialTourSize )
+            {
+                unmake();
+            }
+        }
+        
+        private void shortest()
+        {
+            shortestTour = tour.clone();
+            shortestTourCost = lowerBound.cost();
+        }
+        
+        private List<Integer> shortestTour()
+        {
+            final List<Integer> cities = new ArrayList<>( shortestTour.length );
+            for ( int city : shortestTour )
+            {
+                cities.add( city );
+            }
+            return cities;
+        }
+    }
+    
+    /**
+     * A partial tour on the best-first frontier.
+     */
+    static final private class Node implements Comparable<Node>
+    {
+        final private int[] tour;
+        final private double cost;
+        final private boolean partialTourContains1;
+        
+        private Node( final int[] tour, final int size, final double cost, final boolean partialTourContains1 )
+        {
+            this.tour = Arrays.copyOf( tour, size );
+            this.cost = cost;
+            this.partialTourContains1 = partialTourContains1;
+        }
+
+        @Override
+        public int compareTo( final Node that ) { return Double.compare( cost, that.cost ); }
     }
 
     @Override public ReturnDecomposition divideAndConquer() 
@@ -159,7 +431,8 @@ public class TaskEuclideanTsp extends TaskRecursive<Tour>
     public LowerBound lowerBound() { return lowerBound; }
     
     /**
-     * Get children whose lower bound is less than the current upper bound.
+     * Get children whose lower bound is less than the current upper bound, 
+     * in order of increasing lower bound: the Space dispatches them in that order.
      * @param upperBound
      * @return 
      */
@@ -178,11 +451,39 @@ public class TaskEuclideanTsp extends TaskRecursive<Tour>
                 // update prune statistics
             }
         }
+        if ( searchStrategy != SearchStrategy.DEPTH_FIRST )
+        {
+            Collections.sort( children, Comparator.comparingDouble( TaskEuclideanTsp::cost ) );
+        }
         return children;
     }
     
     public double cost() { return lowerBound().cost(); }
     
+    /**
+     * @return the lower bound: the Space's priority queue dispatches the most promising task first.
+     */
+    @Override public double priority() { return cost(); }
+    
+    /**
+     * @param shared the current SharedTour.
+     * @return true if and only if no tour that extends this partial tour is shorter than shared's.
+     */
+    @Override public boolean isStale( final Shared shared ) 
+    { 
+        return shared instanceof SharedTour && cost() >= ( ( SharedTour ) shared ).cost(); 
+    }
+    
+    /**
+     * @param shared the SharedTour against which this task is stale.
+     * @return shared's tour, as solve returns when it finds no shorter tour.
+     */
+    @Override public Return staleReturn( final Shared shared )
+    {
+        final SharedTour sharedTour = ( SharedTour ) shared;
+        return new ReturnValueTour( this, new Tour( sharedTour.tour(), sharedTour.cost() ) );
+    }
+    
     public List<Integer> tour() { return partialTour; }
     
     @Override public String toString()
@@ -204,6 +505,28 @@ public class TaskEuclideanTsp extends TaskRecursive<Tour>
     }
     
     public List<Integer> unvisitedCities() { return unvisitedCities; }
+    
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        Tour.writeCities( out, partialTour );
+        Tour.writeCities( out, unvisitedCities );
+        out.writeObject( lowerBound );
+        out.writeBoolean( partialTourContains1 );
+        out.writeByte( searchStrategy.ordinal() );
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        partialTour = Tour.readCities( in, new ArrayList<>() );
+        unvisitedCities = Tour.readCities( in, new LinkedList<>() );
+        lowerBound = (LowerBound) in.readObject();
+        partialTourContains1 = in.readBoolean();
+        searchStrategy = SearchStrategy.values()[ in.readByte() ];
+    }
    
    private boolean isComplete() { return unvisitedCities.isEmpty(); }
 }
@@ -23,17 +23,23 @@
  */
 package applications.euclideantsp;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  *
  * @author Peter Cappello
  */
-public class Tour implements Comparable<Tour>, Serializable
+public class Tour implements Comparable<Tour>, Externalizable
 {
-    final private List<Integer> tour;
-    final private double cost;
+    private List<Integer> tour;
+    private double cost;
+    
+    public Tour() {}
     
     /**
      * Return container for TaskEuclideanTsp.
@@ -58,4 +64,49 @@ public class Tour implements Comparable<Tour>, Serializable
     
     @Override
     public String toString() { return tour.toString() + "\n\tCost: " + cost; }
+    
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        writeCities( out, tour );
+        out.writeDouble( cost );
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException
+    {
+        tour = readCities( in, new ArrayList<>() );
+        cost = in.readDouble();
+    }
+    
+    /**
+     * Write a List of cities as an int count followed by int cities.
+     * @param out
+     * @param cities
+     * @throws IOException 
+     */
+    static void writeCities( final ObjectOutput out, final List<Integer> cities ) throws IOException
+    {
+        out.writeInt( cities.size() );
+        for ( int city : cities )
+        {
+            out.writeInt( city );
+        }
+    }
+    
+    /**
+     * Read a List of cities written by writeCities.
+     * @param in
+     * @param cities the empty List to which the cities are added.
+     * @return cities.
+     * @throws IOException 
+     */
+    static List<Integer> readCities( final ObjectInput in, final List<Integer> cities ) throws IOException
+    {
+        for ( int numCities = in.readInt(); numCities > 0; numCities-- )
+        {
+            cities.add( in.readInt() );
+        }
+        return cities;
+    }
 }
@@ -24,6 +24,10 @@
 package applications.fibonacci;
 
 import api.ReturnValue;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import javax.swing.JLabel;
 import javax.swing.SwingConstants;
 import system.Task;
@@ -32,8 +36,10 @@ import system.Task;
  *
  * @author Peter Cappello
  */
-public class ReturnValueFibonacci extends ReturnValue<Integer>
+public class ReturnValueFibonacci extends ReturnValue<Integer> implements Externalizable
 {    
+    public ReturnValueFibonacci() {}
+    
     ReturnValueFibonacci( final Task task, Integer value )
     {
         super( task, value );
@@ -44,4 +50,10 @@ public class ReturnValueFibonacci extends ReturnValue<Integer>
     {
         return new JLabel( "    The Fibonacci number is " + value() + "    ", SwingConstants.CENTER ) ;
     }
+    
+    @Override
+    protected void writeValue( final ObjectOutput out, final Integer value ) throws IOException { out.writeInt( value ); }
+    
+    @Override
+    protected Integer readValue( final ObjectInput in ) throws IOException { return in.readInt(); }
 }
@@ -24,17 +24,24 @@
 package applications.fibonacci;
 
 import api.ReturnValue;
-import api.TaskCompose;
+import api.TaskComposeFold;
+import java.io.Externalizable;
 
 /**
  *
  * @author Peter Cappello
  */
-public class SumIntegers extends TaskCompose<Integer>
+public class SumIntegers extends TaskComposeFold<Integer> implements Externalizable
 {    
+    @Override
+    protected Integer identity() { return 0; }
+    
+    @Override
+    protected Integer fold( final Integer sum, final Integer integer ) { return sum + integer; }
+    
     @Override
     public ReturnValue call() 
     {
-        return new ReturnValueFibonacci( this, args().get( 0 ) + args().get( 1 ) );
+        return new ReturnValueFibonacci( this, accumulator() );
     }
 }
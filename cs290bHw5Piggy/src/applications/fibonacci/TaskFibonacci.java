@@ -28,6 +28,10 @@ import api.ReturnDecomposition;
 import api.ReturnValue;
 import system.Task;
 import api.TaskRecursive;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,7 +39,7 @@ import java.util.List;
  * Compute the nth Fibonacci number.
  * @author Peter Cappello
  */
-public class TaskFibonacci extends TaskRecursive<Integer>
+public class TaskFibonacci extends TaskRecursive<Integer> implements Externalizable
 { 
     // Configure Job
     static private final int    N           = 20; // F(16) = 987
@@ -47,7 +51,9 @@ public class TaskFibonacci extends TaskRecursive<Integer>
         new JobRunner( FRAME_TITLE, args ).run( TASK );
     }
     
-    final private int n;
+    private int n;
+    
+    public TaskFibonacci() {}
             
     public TaskFibonacci( int n ) 
     { 
@@ -62,7 +68,16 @@ public class TaskFibonacci extends TaskRecursive<Integer>
     public boolean isAtomic() { return n < 2; }
 
     @Override
-    public ReturnValue<Integer> solve() { return new ReturnValueFibonacci( this, n ); }
+    public boolean isSolvable() { return true; }
+
+    /**
+     * Solve this task by the recursion that its decomposition would distribute.
+     * @return F( n ).
+     */
+    @Override
+    public ReturnValue<Integer> solve() { return new ReturnValueFibonacci( this, fibonacci( n ) ); }
+    
+    static private int fibonacci( final int n ) { return n < 2 ? n : fibonacci( n - 2 ) + fibonacci( n - 1 ); }
 
     @Override
     public ReturnDecomposition divideAndConquer() 
@@ -73,6 +88,20 @@ public class TaskFibonacci extends TaskRecursive<Integer>
         return new ReturnDecomposition( new SumIntegers(), subtasks ); 
     }
     
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        out.writeInt( n );
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        n = in.readInt();
+    }
+    
     @Override
     public String toString()
     {
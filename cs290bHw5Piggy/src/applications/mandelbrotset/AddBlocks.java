@@ -24,31 +24,64 @@
 package applications.mandelbrotset;
 
 import api.ReturnValue;
-import api.TaskCompose;
+import api.TaskComposeFold;
+import java.io.Externalizable;
 import static applications.mandelbrotset.TaskMandelbrotSet.BLOCK_SIZE;
 import static applications.mandelbrotset.TaskMandelbrotSet.N_PIXELS;
 
 /**
- *
+ * Assembles the job's image from its blocks. The image is allocated once, 
+ * when the first block arrives. Blocks are disjoint, so each one is copied 
+ * into the image when it arrives, outside this task's lock; 
+ * the block is then unreferenced.
  * @author Peter Cappello
  */
-public class AddBlocks extends TaskCompose<IterationCounts>
+public class AddBlocks extends TaskComposeFold<IterationCounts> implements Externalizable
 {    
+    private IterationCounts image;
+    
+    synchronized private IterationCounts image()
+    {
+        if ( image == null )
+        {
+            image = accumulator() != null ? accumulator() : new IterationCounts( new int[ N_PIXELS * N_PIXELS ], N_PIXELS, 0, 0 );
+        }
+        return image;
+    }
+    
+    /**
+     * Copy a block into the image, then record its arrival.
+     * @param argNum the index of the block.
+     * @param iterationCounts the block.
+     * @return true if and only if this was the last block this task is waiting for.
+     */
     @Override
-    public ReturnValue call() 
+    public boolean arg( final int argNum, final IterationCounts iterationCounts )
     {
-        Integer[][] counts = new Integer[N_PIXELS][N_PIXELS];
-        for ( IterationCounts iterationCounts : args() ) 
-        {            
-            // copy blockCounts into counts array
-            Integer[][] blockCounts = iterationCounts.counts();
-            int blockRow = iterationCounts.row();
-            int blockCol = iterationCounts.col();
-            for ( int row = 0; row < BLOCK_SIZE; row++ )
-            {
-                System.arraycopy( blockCounts[ row ], 0, counts[ blockRow * BLOCK_SIZE + row ], blockCol * BLOCK_SIZE, BLOCK_SIZE );
-            }
+        // copy each row of blockCounts into its row of the counts array
+        final int[] counts = image().counts();
+        final int[] blockCounts = iterationCounts.counts();
+        final int blockRow = iterationCounts.row();
+        final int blockCol = iterationCounts.col();
+        for ( int row = 0; row < BLOCK_SIZE; row++ )
+        {
+            System.arraycopy( blockCounts, row * BLOCK_SIZE, counts, ( blockRow * BLOCK_SIZE + row ) * N_PIXELS + blockCol * BLOCK_SIZE, BLOCK_SIZE );
         }
-        return new ReturnValueIterationCounts( this, new IterationCounts( counts, 0, 0 ) );
+        return super.arg( argNum, iterationCounts );
+    }
+    
+    @Override
+    protected IterationCounts identity() { return image(); }
+    
+    /**
+     * @return the image: arg copied the block into it.
+     */
+    @Override
+    protected IterationCounts fold( final IterationCounts image, final IterationCounts iterationCounts ) { return image; }
+    
+    @Override
+    public ReturnValue call() 
+    {
+        return new ReturnValueIterationCounts( this, accumulator() );
     }
 }
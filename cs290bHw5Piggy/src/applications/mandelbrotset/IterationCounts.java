@@ -23,32 +23,64 @@
  */
 package applications.mandelbrotset;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 /**
- *
+ * A square block of iteration counts, in a flat, row-major int array:
+ * the count of pixel ( row, col ) is counts()[ row * numPixels() + col ].
  * @author Peter Cappello
  */
-public class IterationCounts
+public class IterationCounts implements Externalizable
 {
-    final private Integer[][] counts;
-    final private int row;
-    final private int col;
+    private int[] counts;
+    private int numPixels;
+    private int row;
+    private int col;
+    
+    public IterationCounts() {}
     
     /**
-     * Return container for TaskEuclideanTsp.
-     * @param counts
-     * @param row
-     * @param col
+     * Return container for TaskMandelbrotSet.
+     * @param counts row-major iteration counts of a numPixels x numPixels block.
+     * @param numPixels the number of pixels on a side of the block.
+     * @param row the block's row.
+     * @param col the block's column.
      */
-    public IterationCounts( Integer[][] counts, int row, int col ) 
+    public IterationCounts( int[] counts, int numPixels, int row, int col ) 
     {
+        assert counts.length == numPixels * numPixels;
         this.counts = counts;
+        this.numPixels = numPixels;
         this.row = row;
         this.col = col;
     } 
  
-    public Integer[][] counts() { return counts; }
+    public int[] counts() { return counts; }
+    
+    public int numPixels() { return numPixels; }
     
     public int row() { return row; }
     
     public int col() { return col; }
+    
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        out.writeInt( numPixels );
+        out.writeInt( row );
+        out.writeInt( col );
+        out.writeObject( counts ); // primitive arrays are written in bulk.
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        numPixels = in.readInt();
+        row = in.readInt();
+        col = in.readInt();
+        counts = (int[]) in.readObject();
+    }
 }
@@ -25,11 +25,10 @@ package applications.mandelbrotset;
 
 import api.ReturnValue;
 import static applications.mandelbrotset.TaskMandelbrotSet.ITERATION_LIMIT;
-import static applications.mandelbrotset.TaskMandelbrotSet.N_PIXELS;
 import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Externalizable;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import system.Task;
@@ -38,28 +37,46 @@ import system.Task;
  *
  * @author Peter Cappello
  */
-public class ReturnValueIterationCounts extends ReturnValue<IterationCounts>
+public class ReturnValueIterationCounts extends ReturnValue<IterationCounts> implements Externalizable
 {
+    static final private int BLACK = Color.BLACK.getRGB();
+    static final private int WHITE = Color.WHITE.getRGB();
+    
+    public ReturnValueIterationCounts() {}
+    
     ReturnValueIterationCounts( final Task task, final IterationCounts counts ) { super( task, counts ); }
     
+    /**
+     * @return true: a block of the image is streamed as it is computed.
+     */
+    @Override
+    public boolean isPartialResult() { return true; }
+    
+    /**
+     * @return the size of the block's iteration counts.
+     */
+    @Override
+    public int partialResultSize() { return Integer.BYTES * value().counts().length; }
+    
     @Override
     public JLabel view() 
     {
-        final Integer[][] counts = value().counts();
-        final Image image = new BufferedImage( N_PIXELS, N_PIXELS, BufferedImage.TYPE_INT_ARGB );
-        final Graphics graphics = image.getGraphics();
-        for ( int i = 0; i < counts.length; i++ )
-            for ( int j = 0; j < counts.length; j++ )
+        final int[] counts = value().counts();
+        final int numPixels = value().numPixels();
+        final BufferedImage image = new BufferedImage( numPixels, numPixels, BufferedImage.TYPE_INT_ARGB );
+        // write the colors into the image's own pixel array: no intermediate copy.
+        final int[] pixels = ( (DataBufferInt) image.getRaster().getDataBuffer() ).getData();
+        for ( int i = 0; i < numPixels; i++ )
+            for ( int j = 0; j < numPixels; j++ )
             {
-                graphics.setColor( getColor( counts[i][j] ) );
-                graphics.fillRect( i, N_PIXELS - j, 1, 1 );
+                pixels[ ( numPixels - 1 - j ) * numPixels + i ] = getColor( counts[ i * numPixels + j ] );
             }
         final ImageIcon imageIcon = new ImageIcon( image );
         return new JLabel( imageIcon );
     }
     
-    private Color getColor( final int iterationCount )
+    private int getColor( final int iterationCount )
     {
-        return iterationCount == ITERATION_LIMIT ? Color.BLACK : Color.WHITE;
+        return iterationCount == ITERATION_LIMIT ? BLACK : WHITE;
     }
 }
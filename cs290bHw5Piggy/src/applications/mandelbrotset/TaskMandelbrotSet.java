@@ -27,6 +27,10 @@ import api.ReturnDecomposition;
 import api.ReturnValue;
 import system.Task;
 import api.TaskRecursive;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -34,7 +38,7 @@ import java.util.List;
  *
  * @author Peter Cappello
  */
-public class TaskMandelbrotSet extends TaskRecursive<IterationCounts>
+public class TaskMandelbrotSet extends TaskRecursive<IterationCounts> implements Externalizable
 {
     // Configure Job 
     static public final double LOWER_LEFT_X = -0.7510975859375;
@@ -53,13 +57,15 @@ public class TaskMandelbrotSet extends TaskRecursive<IterationCounts>
         new JobRunner( FRAME_TITLE, args ).run( TASK );
     }
     
-    final private double lowerLeftX;
-    final private double lowerLeftY;
-    final private double edgeLength;
-    final private int numPixels;
-    final private int iterationLimit;
-    final private int blockRow;
-    final private int blockCol;
+    private double lowerLeftX;
+    private double lowerLeftY;
+    private double edgeLength;
+    private int numPixels;
+    private int iterationLimit;
+    private int blockRow;
+    private int blockCol;
+    
+    public TaskMandelbrotSet() {}
             
     public TaskMandelbrotSet( double lowerLeftX, double lowerLeftY, double edgeLength, int numPixels, int iterationLimit, int blockRow, int blockCol )
     {
@@ -73,19 +79,22 @@ public class TaskMandelbrotSet extends TaskRecursive<IterationCounts>
     }
     
     @Override
-    public boolean isAtomic() { return MAX_NUM_PIXELS < numPixels; }
+    public boolean isAtomic() { return numPixels <= MAX_NUM_PIXELS; }
+    
+    @Override
+    public boolean isSolvable() { return true; }
 
     @Override
     public ReturnValue<IterationCounts> solve() 
     {
-        final Integer[][] counts = new Integer[numPixels][numPixels];
+        final int[] counts = new int[ numPixels * numPixels ];
         final double delta = edgeLength / numPixels;
-        for ( int row = 0; row < numPixels; row++ )
-            for ( int col = 0; col < numPixels; col++ )
+        for ( int row = 0, pixel = 0; row < numPixels; row++ )
+            for ( int col = 0; col < numPixels; col++, pixel++ )
             {
-                counts[row][col] = getIterationCount( row, col, delta );
+                counts[ pixel ] = getIterationCount( row, col, delta );
             }
-        return new ReturnValueIterationCounts( this, new IterationCounts( counts, blockRow, blockCol ) );
+        return new ReturnValueIterationCounts( this, new IterationCounts( counts, numPixels, blockRow, blockCol ) );
     }
 
     @Override
@@ -107,6 +116,32 @@ public class TaskMandelbrotSet extends TaskRecursive<IterationCounts>
         return new ReturnDecomposition( new AddBlocks(), subtasks );
     }
     
+    @Override
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        super.writeExternal( out );
+        out.writeDouble( lowerLeftX );
+        out.writeDouble( lowerLeftY );
+        out.writeDouble( edgeLength );
+        out.writeInt( numPixels );
+        out.writeInt( iterationLimit );
+        out.writeInt( blockRow );
+        out.writeInt( blockCol );
+    }
+    
+    @Override
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        super.readExternal( in );
+        lowerLeftX = in.readDouble();
+        lowerLeftY = in.readDouble();
+        edgeLength = in.readDouble();
+        numPixels = in.readInt();
+        iterationLimit = in.readInt();
+        blockRow = in.readInt();
+        blockCol = in.readInt();
+    }
+    
     @Override
     public String toString()
     {
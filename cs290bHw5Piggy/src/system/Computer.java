@@ -26,6 +26,7 @@ package system;
 import api.Shared;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 /**
  *
@@ -35,11 +36,67 @@ public interface Computer extends Remote
 {        
 
     /**
-     * Execute Task with access to Shared object.
+     * Execute Task with access to this Computer's Shared object.
      * @param task
-     * @param shared
      * @return the Task return value.
      * @throws RemoteException
      */
-    public Return execute( final Task task, final Shared shared ) throws RemoteException; 
+    public Return execute( final Task task ) throws RemoteException; 
+    
+    /**
+     * Set the id that the Space assigned to this Computer: 
+     * it makes the Task ids that this Computer generates unique.
+     * @param computerId
+     * @throws RemoteException
+     */
+    public void id( final int computerId ) throws RemoteException;
+    
+    /**
+     * Does nothing: the Space invokes it to learn whether this Computer is reachable.
+     * @throws RemoteException if it is not.
+     */
+    public void ping() throws RemoteException;
+    
+    /**
+     * Execute a batch of Task objects in one remote invocation.
+     * @param tasks
+     * @return the Task return values, in the order of tasks.
+     * @throws RemoteException
+     */
+    public List<Return> execute( final List<Task> tasks ) throws RemoteException;
+    
+    /**
+     * Execute a batch of Task objects asynchronously: return immediately; 
+     * deliver the Task return values to listener, when they are computed.
+     * @param batchId identifies the batch to listener.
+     * @param tasks
+     * @param listener
+     * @throws RemoteException
+     */
+    public void submit( final long batchId, final List<Task> tasks, final ResultListener listener ) throws RemoteException;
+    
+    /**
+     * Receive a job's Shared object: the Space broadcasts it to its 
+     * registered Computers, when it improves.
+     * @param jobId the job whose Shared object it is.
+     * @param version the Space's version number of shared; later versions are larger.
+     * @param shared
+     * @throws RemoteException
+     */
+    public void shared( final long jobId, final long version, final Shared shared ) throws RemoteException;
+    
+    /**
+     * The job was cancelled: abandon its Task objects. 
+     * A Task whose execution has begun is abandoned if it checks Task.isCancelled.
+     * @param jobId
+     * @throws RemoteException
+     */
+    public void cancel( final long jobId ) throws RemoteException;
+    
+    /**
+     * The job ended: its Task objects will no longer be sent to this Computer.
+     * @param jobId
+     * @throws RemoteException
+     */
+    public void endJob( final long jobId ) throws RemoteException;
 }
@@ -26,8 +26,23 @@ import api.*;
 import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import static system.Configuration.LOCAL_DEPTH;
 
 /**
  * An implementation of the Remote Computer interface.
@@ -35,8 +50,26 @@ import java.util.logging.Logger;
  */
 public final class ComputerImpl extends UnicastRemoteObject implements Computer
 {
-    final private Boolean sharedLock = true;
-          private Shared shared;
+    static final private int MAX_SURPLUS_TASKS = 3;
+    static final private int TASK_ID_BITS = 40; // low-order bits of a Task id: a counter.
+    static final private int MAX_ENDED_JOBS = 1024; // the ended jobs that are remembered.
+    static final private JobShared ENDED = new JobShared( true ); // the JobShared of an ended job.
+    
+    final private ForkJoinPool forkJoinPool = new ForkJoinPool();
+    final private ExecutorService executorService = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors(), runnable -> 
+    {
+        final Thread thread = new Thread( runnable );
+        thread.setDaemon( true );
+        return thread;
+    } );
+    final private AtomicLong taskIds = new AtomicLong();
+    final private Map<Long, JobShared> jobShareds = new ConcurrentHashMap<>();
+    final private Set<Long> endedJobs = Collections.newSetFromMap( new LinkedHashMap<Long, Boolean>()
+    {
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<Long, Boolean> eldest ) { return size() > MAX_ENDED_JOBS; }
+    } );
+          private volatile long taskIdPrefix;
            
     public ComputerImpl( final Space space ) throws RemoteException
     {
@@ -47,19 +80,105 @@ public final class ComputerImpl extends UnicastRemoteObject implements Computer
     /**
      * Execute a Task.
      * @param task to be executed.
-     * @param shared the best effort value of shared.
      * @return the return value of the Task call method.
-     * @throws RemoteException
      */
     @Override
-    public Return execute( final Task task, final Shared shared ) throws RemoteException 
+    public Return execute( final Task task )
     { 
         final long startTime = System.nanoTime();
-        return task.shared( upadateShared( shared ) )
-                   .call()
-                   .setIds( task )
-                   .shared( upadateShared( task.shared() ) )
-                   .taskRunTime( System.nanoTime() - startTime );
+        final JobShared jobShared = jobShared( task.jobId() );
+        final Shared current = jobShared.shared();
+        final Return result;
+        if ( jobShared.isCancelled )
+        {
+            result = new ReturnCancelled();
+        }
+        else if ( task instanceof Prunable && ( (Prunable) task ).isStale( current ) )
+        {   // the Shared object improved after the Space dispatched task.
+            result = ( (Prunable) task ).staleReturn( current );
+        }
+        else
+        {
+            result = call( task, current, jobShared );
+        }
+        return jobShared.sharedVersion( result ).taskRunTime( System.nanoTime() - startTime );
+    }
+    
+    /**
+     * Execute a Task that is neither stale nor of a cancelled job.
+     * @param task
+     * @param shared the Shared object of task's job.
+     * @param jobShared 
+     * @return task's Return; a ReturnCancelled, if task's job was cancelled during its execution.
+     */
+    private Return call( final Task task, final Shared shared, final JobShared jobShared )
+    {
+        try
+        {
+            if ( isLocal( task ) )
+            {
+                return forkJoinPool.invoke( new LocalTask( task, jobShared ) );
+            }
+            task.isCancelled( jobShared );
+            final Return result = task.shared( shared ).call().setIds( task, this::makeTaskId );
+            jobShared.update( task.shared() );
+            return result;
+        }
+        catch ( CancellationException ignore ) 
+        {
+            return new ReturnCancelled();
+        }
+    }
+    
+    /**
+     * A Task id is this Computer's id followed by a local counter.
+     * @param computerId the id that the Space assigned to this Computer.
+     */
+    @Override
+    public void id( final int computerId ) { taskIdPrefix = (long) computerId << TASK_ID_BITS; }
+    
+    private long makeTaskId() { return taskIdPrefix | taskIds.getAndIncrement(); }
+    
+    @Override
+    public void ping() {}
+    
+    /**
+     * Execute a batch of Task objects.
+     * @param tasks to be executed.
+     * @return the return values of the Task call methods, in the order of tasks.
+     */
+    @Override
+    public List<Return> execute( final List<Task> tasks )
+    { 
+        final List<Return> returns = new ArrayList<>( tasks.size() );
+        for ( Task task : tasks )
+        {
+            returns.add( execute( task ) );
+        }
+        return returns;
+    }
+    
+    /**
+     * Execute a batch of Task objects on this Computer's thread pool.
+     * @param batchId identifies the batch to listener.
+     * @param tasks to be executed.
+     * @param listener receives the return values of the Task call methods.
+     */
+    @Override
+    public void submit( final long batchId, final List<Task> tasks, final ResultListener listener )
+    {
+        executorService.execute( () -> 
+        {
+            try 
+            { 
+                listener.processResults( batchId, execute( tasks ) ); 
+            }
+            catch ( RemoteException exception ) 
+            {
+                Logger.getLogger( getClass().getCanonicalName() )
+                      .log( Level.WARNING, "Space unreachable: batch discarded.", exception );
+            }
+        } );
     }
     
     /**
@@ -76,12 +195,223 @@ public final class ComputerImpl extends UnicastRemoteObject implements Computer
         space.register( new ComputerImpl( space ), Runtime.getRuntime().availableProcessors() );
     }
             
-    private Shared upadateShared( final Shared that )
+    /**
+     * Is task's subtree executed on this Computer, instead of being decomposed by the Space?
+     * A surplus Task is not: its children go back to the Space, which 
+     * redistributes them to idle workers; there, each may be executed locally.
+     * @param task the Task received from the Space.
+     * @return true if and only if local-first execution is enabled, and task is 
+     * at least LOCAL_DEPTH deep, and not surplus.
+     */
+    private boolean isLocal( final Task task ) 
+    { 
+        return LOCAL_DEPTH > 0 && task.depth() >= LOCAL_DEPTH && ! task.isSpaceCallable() && ! task.isSurplus(); 
+    }
+    
+    /**
+     * A Task of an ended job may arrive after the job ended, e.g., a Task 
+     * that was in flight when its job completed: it gets ENDED, a cancelled 
+     * JobShared that is not kept, so jobShareds does not grow.
+     * The check follows the insert, as endJob records the job before removing it: 
+     * whichever runs last removes the entry.
+     * @param jobId
+     * @return this Computer's Shared object of the job: NullShared, version 0, 
+     * until the Space broadcasts one.
+     */
+    private JobShared jobShared( final long jobId ) 
+    { 
+        final JobShared jobShared = jobShareds.get( jobId );
+        if ( jobShared != null )
+        {
+            return jobShared;
+        }
+        final JobShared newJobShared = jobShareds.computeIfAbsent( jobId, id -> new JobShared( false ) );
+        synchronized ( endedJobs )
+        {
+            if ( ! endedJobs.contains( jobId ) )
+            {
+                return newJobShared;
+            }
+        }
+        jobShareds.remove( jobId );
+        return ENDED;
+    }
+    
+    /**
+     * Receive a Shared object that the Space broadcasts. 
+     * Broadcasts may arrive out of order: an older version is ignored.
+     * This Computer keeps a Shared object that it found, if it is newer than 
+     * the broadcast one: the Space has yet to receive it.
+     * @param jobId the job whose Shared object it is.
+     * @param version the Space's version number of shared.
+     * @param shared the Space's Shared object.
+     */
+    @Override
+    public void shared( final long jobId, final long version, final Shared shared )
     {
-        synchronized( sharedLock )
+        jobShared( jobId ).shared( version, shared );
+    }
+    
+    /**
+     * Abandon the Task objects of a cancelled job: those executing, 
+     * and those that arrive later.
+     * @param jobId 
+     */
+    @Override
+    public void cancel( final long jobId ) { jobShared( jobId ).isCancelled = true; }
+    
+    /**
+     * Discard the Shared object of a job that ended. 
+     * The last MAX_ENDED_JOBS ended jobs are remembered: 
+     * their Task objects that arrive later are abandoned.
+     * @param jobId 
+     */
+    @Override
+    public void endJob( final long jobId ) 
+    { 
+        synchronized ( endedJobs )
+        {
+            endedJobs.add( jobId );
+        }
+        jobShareds.remove( jobId ); 
+    }
+    
+    /**
+     * A job's Shared object on this Computer, and the Space's latest broadcast of it.
+     * It tells the job's executing Task objects whether the job was cancelled.
+     */
+    static final private class JobShared implements BooleanSupplier
+    {
+        private Shared shared = new NullShared();
+        private Shared spaceShared = shared; // the Space's latest broadcast.
+        private long sharedVersion;
+        volatile private boolean isCancelled;
+        
+        private JobShared( final boolean isCancelled ) { this.isCancelled = isCancelled; }
+        
+        @Override
+        public boolean getAsBoolean() { return isCancelled; }
+        
+        synchronized private Shared shared() { return shared; }
+    
+        synchronized private Shared update( final Shared that )
+        {
+            shared = shared.isOlderThan( that ) ? that : shared;
+            return shared;
+        }
+        
+        /**
+         * Adopt the broadcast Shared object, unless this Computer's is strictly newer. 
+         * They are compared by value: the broadcast may be this Computer's own 
+         * improvement, returned by the Space.
+         * @param version
+         * @param shared 
+         */
+        @SuppressWarnings( "unchecked" )
+        synchronized private void shared( final long version, final Shared shared )
+        {
+            if ( version <= sharedVersion )
+            {
+                return;
+            }
+            sharedVersion = version;
+            spaceShared = shared;
+            if ( this.shared instanceof NullShared || ! shared.isOlderThan( this.shared ) )
+            {
+                this.shared = shared;
+            }
+        }
+    
+        /**
+         * Set the version of this Computer's Shared object in result; 
+         * if this Computer's Shared object is strictly newer than the Space's, set it too.
+         * @param result the Return of a Task that this Computer executed.
+         * @return result.
+         */
+        @SuppressWarnings( "unchecked" )
+        synchronized private Return sharedVersion( final Return result )
+        {
+            return result.sharedVersion( sharedVersion ).shared( spaceShared.isOlderThan( shared ) ? shared : null );
+        }
+    }
+    
+    /**
+     * Execute a Task's entire subtree on this Computer's ForkJoinPool.
+     * Subtasks are forked while this Computer has little surplus work; 
+     * otherwise, they are executed by the current thread.
+     * Work is handed back to the Space only before a subtree starts: see isLocal.
+     * The T1 and Tinf of the subtree are set in its ReturnValue.
+     */
+    private class LocalTask extends RecursiveTask<ReturnValue>
+    {
+        final private Task task;
+        final private JobShared jobShared;
+        
+        private LocalTask( final Task task, final JobShared jobShared ) 
+        { 
+            this.task = task; 
+            this.jobShared = jobShared;
+        }
+        
+        @Override
+        protected ReturnValue compute()
         {
-            this.shared = this.shared == null || this.shared.isOlderThan( that ) ? that : this.shared;
-            return this.shared;
+            if ( jobShared.isCancelled )
+            {
+                throw new CancellationException();
+            }
+            long startTime = System.nanoTime();
+            task.isCancelled( jobShared );
+            final Return result = task.shared( jobShared.shared() ).call();
+            jobShared.update( task.shared() );
+            long runTime = System.nanoTime() - startTime;
+            if ( result instanceof ReturnValue )
+            {
+                final ReturnValue returnValue = (ReturnValue) result;
+                returnValue.t1( runTime );
+                returnValue.tInf( runTime );
+                return returnValue;
+            }
+            final ReturnDecomposition decomposition = (ReturnDecomposition) result;
+            final List<LocalTask> children = new ArrayList<>();
+            for ( Task child : decomposition.tasks() )
+            {
+                // as ReturnDecomposition.setIds: the solve depth applies within the subtree.
+                child.jobId( task.jobId() );
+                child.depth( task.depth() + 1 );
+                child.solveDepth( task.solveDepth() );
+                children.add( new LocalTask( child, jobShared ) );
+            }
+            if ( getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS )
+            {
+                invokeAll( children );
+            }
+            else
+            {
+                children.stream().forEach( child -> child.complete( child.compute() ) );
+            }
+            final TaskCompose compose = decomposition.compose();
+            compose.jobId( task.jobId() );
+            compose.composeId( task.composeId() );
+            compose.composeArgNum( task.composeArgNum() );
+            compose.depth( task.depth() );
+            compose.numArgs( children.size() );
+            for ( int i = 0; i < children.size(); i++ )
+            {
+                final ReturnValue childValue = children.get( i ).join();
+                compose.sumChildT1( childValue.t1() );
+                compose.maxChildTInf( childValue.tInf() );
+                compose.arg( i, childValue.value() );
+            }
+            startTime = System.nanoTime();
+            compose.isCancelled( jobShared );
+            compose.shared( jobShared.shared() );
+            final ReturnValue returnValue = compose.call();
+            jobShared.update( compose.shared() );
+            runTime += System.nanoTime() - startTime;
+            returnValue.t1( runTime + compose.sumChildT1() );
+            returnValue.tInf( runTime + compose.maxChildTInf() );
+            return returnValue;
         }
     }
 }
@@ -31,4 +31,14 @@ public interface Configuration
 {
     static final public boolean SPACE_CALLABLE  = true;
     static final public boolean MULTI_COMPUTERS = false;
+    static final public boolean WORK_STEALING   = false;
+    static final public boolean PRIORITY_QUEUE  = false; // by Task.priority(); unless WORK_STEALING.
+    static final public int     MAX_BATCH_SIZE  = 32; // 1 disables batching.
+    static final public int     TASKS_IN_FLIGHT = 0;  // per Computer; 0 disables pipelining.
+    static final public long    LIVENESS_INTERVAL = 1000; // ms.; pipelined: how often a Computer with batches in flight is pinged.
+    static final public long    BATCH_TIMEOUT   = 60000; // ms.; pipelined: a Computer that returns no batch for this long failed; 0 disables.
+    static final public int     LOCAL_DEPTH     = 0;  // Computer executes subtrees at this depth; 0 disables.
+    static final public long    TARGET_TASK_RUN_TIME = 1000000; // ns.; 0 disables adaptive granularity.
+    static final public long    EVENT_INTERVAL  = 100; // ms.; the least time between batches of events to a Listener.
+    static final public boolean VIRTUAL_WORKER_PROXIES = false; // needs Java 21; else, platform threads.
 }
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import api.ReturnValue;
+import api.TaskCompose;
+import java.util.concurrent.atomic.AtomicLongArray;
+import static system.Configuration.TARGET_TASK_RUN_TIME;
+
+/**
+ * Learns, from the run times of solved tasks, the depth at and below which 
+ * a TaskRecursive that can be solved is solved, instead of decomposed: 
+ * its subtasks would run too briefly to amortize their dispatch.
+ * 
+ * The mean run time of the tasks solved at depth d + 1 estimates that of the 
+ * subtasks of a task at depth d. If it is less than the target run time, 
+ * tasks at depth d are solved; their run times are then observed, and the 
+ * solve depth may rise again. The target is the larger of 
+ * TARGET_TASK_RUN_TIME and LATENCY_FACTOR times the mean dispatch latency. 
+ * Tasks at a depth at which fewer than MIN_TASKS tasks were seen are not 
+ * solved: they are kept for parallelism.
+ * 
+ * Updates from different threads may race: they are estimates.
+ * @author Peter Cappello
+ */
+final class Granularity 
+{
+    static final private int MAX_DEPTH = 64;
+    static final private int MIN_TASKS = 64;
+    static final private int LATENCY_FACTOR = 10;
+    
+    // by depth: the mean run time, in ns., of solved tasks; 0 if none was solved.
+    final private AtomicLongArray meanRunTimes = new AtomicLongArray( MAX_DEPTH ); 
+    final private AtomicLongArray numTasks     = new AtomicLongArray( MAX_DEPTH );
+    private volatile long meanLatency;
+    private volatile int solveDepth = Integer.MAX_VALUE;
+    
+    /**
+     * @return the depth at and below which tasks are solved; Integer.MAX_VALUE: none.
+     */
+    int solveDepth() { return solveDepth; }
+    
+    /**
+     * Observe a Task that a Computer executed.
+     * @param task the Task.
+     * @param result its Return.
+     * @param latency the mean dispatch latency, in ns., of its Computer.
+     */
+    void observe( final Task task, final Return result, final long latency )
+    {
+        if ( TARGET_TASK_RUN_TIME <= 0 || task instanceof TaskCompose || task.depth() >= MAX_DEPTH )
+        {
+            return;
+        }
+        final int depth = task.depth();
+        numTasks.incrementAndGet( depth );
+        meanLatency = ( 7 * meanLatency + latency ) / 8;
+        if ( ! ( result instanceof ReturnValue ) )
+        {
+            return;
+        }
+        final long meanRunTime = meanRunTimes.get( depth );
+        meanRunTimes.set( depth, meanRunTime == 0 ? result.taskRunTime() : ( 7 * meanRunTime + result.taskRunTime() ) / 8 );
+        updateSolveDepth();
+    }
+    
+    private void updateSolveDepth()
+    {
+        final long target = Math.max( TARGET_TASK_RUN_TIME, LATENCY_FACTOR * meanLatency );
+        int depth = MAX_DEPTH - 1;
+        while ( depth > 0 && meanRunTimes.get( depth ) == 0 )
+        {
+            depth--;
+        }
+        // depth: the deepest at which a task was solved.
+        int newSolveDepth = Integer.MAX_VALUE;
+        for ( depth--; depth >= 0; depth-- )
+        {
+            final long childRunTime = meanRunTimes.get( depth + 1 );
+            if ( childRunTime == 0 || childRunTime >= target || numTasks.get( depth ) < MIN_TASKS )
+            {
+                break;
+            }
+            newSolveDepth = depth;
+        }
+        solveDepth = newSolveDepth;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import api.NullShared;
+import api.ReturnValue;
+import api.Shared;
+import api.TaskCompose;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import util.ConcurrentLongMap;
+
+/**
+ * A computation that the Space services, concurrently with other jobs. 
+ * A job has its own Shared object, result, waiting TaskCompose objects, 
+ * Listener objects, time measures, and granularity. Its id is its root Task's compose id.
+ * A cancelled job is retained by the Space until none of its Task objects 
+ * is in flight to a Computer.
+ * @author Peter Cappello
+ */
+final class Job 
+{
+    final private long id;
+    final private int weight;
+    final private AtomicReference<VersionedShared> shared = new AtomicReference<>( new VersionedShared( 0, new NullShared() ) );
+    final private CompletableFuture<ReturnValue> result = new CompletableFuture<>();
+    final private ConcurrentLongMap<TaskCompose> waitingTaskMap = new ConcurrentLongMap<>();
+    final private AtomicLong numInFlight = new AtomicLong();
+    final private List<ListenerProxy> listeners = new CopyOnWriteArrayList<>();
+    final private Granularity granularity = new Granularity();
+    final private LongAdder numTasks      = new LongAdder();
+    final private LongAdder numStaleTasks = new LongAdder();
+    
+    /**
+     * @param id
+     * @param weight the job's share of the Computers, relative to the other jobs' weights.
+     */
+    Job( final long id, final int weight )
+    {
+        this.id = id;
+        this.weight = weight;
+    }
+    
+    long id() { return id; }
+    
+    int weight() { return weight; }
+    
+    /**
+     * @return the job's Shared object, and its version.
+     */
+    VersionedShared shared() { return shared.get(); }
+    
+    /**
+     * Replace the job's Shared object.
+     * @param that the new Shared object.
+     * @return that, with its version.
+     */
+    VersionedShared shared( final Shared that )
+    {
+        return shared.updateAndGet( current -> new VersionedShared( current.version + 1, that ) );
+    }
+    
+    /**
+     * Replace the job's Shared object, if that is newer.
+     * @param that a Shared object that a Computer found.
+     * @return that, with its version, or null, if that is not newer.
+     */
+    VersionedShared newerShared( final Shared that )
+    {
+        for ( VersionedShared current = shared.get(); current.shared.isOlderThan( that ); current = shared.get() )
+        {
+            final VersionedShared newer = new VersionedShared( current.version + 1, that );
+            if ( shared.compareAndSet( current, newer ) )
+            {
+                return newer;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return the job's result: completed when its root Task's ReturnValue is processed.
+     */
+    CompletableFuture<ReturnValue> result() { return result; }
+    
+    boolean isCancelled() { return result.isCancelled(); }
+    
+    /**
+     * @return the job's TaskCompose objects that wait for inputs, by id.
+     */
+    ConcurrentLongMap<TaskCompose> waitingTaskMap() { return waitingTaskMap; }
+    
+    /**
+     * @return the proxies of the Listener objects of this job's intermediate results.
+     */
+    List<ListenerProxy> listeners() { return listeners; }
+    
+    /**
+     * A Task of this job is sent to a Computer.
+     */
+    void dispatched() { numInFlight.incrementAndGet(); }
+    
+    /**
+     * The Return of a dispatched Task of this job was received, or the Task was not sent.
+     * @return the number of this job's Task objects that remain in flight.
+     */
+    long returned() { return numInFlight.decrementAndGet(); }
+    
+    long numInFlight() { return numInFlight.get(); }
+    
+    Granularity granularity() { return granularity; }
+    
+    void processed() { numTasks.increment(); }
+    
+    void stale() { numStaleTasks.increment(); }
+    
+    long numTasks() { return numTasks.sum(); }
+    
+    long numStaleTasks() { return numStaleTasks.sum(); }
+    
+    /**
+     * A Shared object and its version: the pair is replaced atomically.
+     */
+    static final class VersionedShared
+    {
+        final long version;
+        final Shared shared;
+        
+        private VersionedShared( final long version, final Shared shared )
+        {
+            this.version = version;
+            this.shared = shared;
+        }
+    }
+}
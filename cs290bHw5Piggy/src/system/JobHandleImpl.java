@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import api.JobHandle;
+import api.JobListener;
+import api.Listener;
+import api.ReturnValue;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The Space's implementation of a JobHandle: a view of a Job's result.
+ * When no client references it, e.g., its clients disconnected, the job is cancelled.
+ * @author Peter Cappello
+ */
+final class JobHandleImpl extends UnicastRemoteObject implements JobHandle, Unreferenced
+{
+    final private Job job;
+    final private SpaceImpl space;
+    final private Executor notifier;
+    
+    /**
+     * @param job
+     * @param space that computes job.
+     * @param notifier executes the notifications of subscribed JobListener objects.
+     * @throws RemoteException 
+     */
+    JobHandleImpl( final Job job, final SpaceImpl space, final Executor notifier ) throws RemoteException
+    {
+        this.job = job;
+        this.space = space;
+        this.notifier = notifier;
+    }
+
+    @Override
+    public long id() { return job.id(); }
+
+    @Override
+    public boolean isDone() { return job.result().isDone(); }
+
+    @Override
+    public boolean isCancelled() { return job.result().isCancelled(); }
+
+    @Override
+    public ReturnValue poll() { return job.result().getNow( null ); }
+
+    /**
+     * If the waiting thread is interrupted, it returns as though timeout elapsed.
+     */
+    @Override
+    public ReturnValue await( final long timeout, final TimeUnit unit )
+    {
+        try 
+        { 
+            return job.result().get( timeout, unit ); 
+        }
+        catch ( TimeoutException ignore ) 
+        { 
+            return null; 
+        }
+        catch ( InterruptedException ignore ) 
+        { 
+            Thread.currentThread().interrupt();
+            return null; 
+        }
+        catch ( ExecutionException exception ) 
+        { 
+            throw new IllegalStateException( exception.getCause() ); // a job's result is not completed exceptionally.
+        }
+    }
+
+    @Override
+    public boolean cancel() { return space.cancel( job.id() ); }
+    
+    @Override
+    public void unreferenced() 
+    { 
+        if ( cancel() )
+        {
+            Logger.getLogger( getClass().getName() )
+                  .log( Level.INFO, "Job {0}: cancelled; its clients are gone.", job.id() );
+        }
+    }
+
+    @Override
+    public void addListener( final Listener listener ) { space.addListener( job, listener ); }
+    
+    @Override
+    public void subscribe( final JobListener listener ) 
+    {
+        job.result().whenCompleteAsync( ( result, ignore ) -> 
+        {
+            try 
+            { 
+                listener.done( job.id(), result ); 
+            }
+            catch ( RemoteException exception ) 
+            {
+                Logger.getLogger( getClass().getName() )
+                      .log( Level.WARNING, "Job {0}: listener unreachable.", job.id() );
+            }
+        }, notifier );
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import api.Listener;
+import api.Shared;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static system.Configuration.EVENT_INTERVAL;
+
+/**
+ * The Space's proxy for a job's remote Listener. 
+ * Events are buffered, and pushed in batches, at most 1 per EVENT_INTERVAL, 
+ * and 1 at a time: recording an event never waits for the Listener.
+ * Shared object improvements are coalesced: only the newest is pushed.
+ * At most MAX_BYTES of partial results are buffered, by their estimated sizes: 
+ * while the buffer is full, e.g., because the Listener is slow, partial results are dropped.
+ * A Listener that cannot be reached is dropped.
+ * @author Peter Cappello
+ */
+final class ListenerProxy 
+{
+    static final private long MAX_BYTES = 1 << 24; // 16 MB.
+    
+    final private long jobId;
+    final private Listener listener;
+    final private ScheduledExecutorService scheduler;
+    final private Executor pusher;
+    final private AtomicReference<Shared> shared = new AtomicReference<>();
+    final private Queue<PartialResult> values = new ConcurrentLinkedQueue<>();
+    final private AtomicLong numBytes = new AtomicLong(); // of the buffered values.
+    final private AtomicBoolean isScheduled = new AtomicBoolean(); // a push is scheduled or in progress.
+    private volatile long pushTime; // of the last push, in ns.
+    private volatile boolean isClosed;
+    
+    /**
+     * @param jobId
+     * @param listener
+     * @param scheduler times the pushes.
+     * @param pusher executes the pushes.
+     */
+    ListenerProxy( final long jobId, final Listener listener, final ScheduledExecutorService scheduler, final Executor pusher )
+    {
+        this.jobId = jobId;
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.pusher = pusher;
+        pushTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos( EVENT_INTERVAL );
+    }
+    
+    /**
+     * @param shared the job's improved Shared object.
+     */
+    void shared( final Shared shared )
+    {
+        if ( isClosed )
+        {
+            return;
+        }
+        this.shared.set( shared );
+        schedule();
+    }
+    
+    /**
+     * @param value a partial result of the job.
+     * @param size an estimate of value's size, in bytes.
+     */
+    void value( final Object value, final int size )
+    {
+        if ( isClosed )
+        {
+            return;
+        }
+        if ( numBytes.addAndGet( size ) > MAX_BYTES )
+        {
+            numBytes.addAndGet( - size );
+            return;
+        }
+        values.add( new PartialResult( value, size ) );
+        schedule();
+    }
+    
+    /**
+     * The job ended: buffered events are pushed; later ones are not.
+     */
+    void close() { isClosed = true; }
+    
+    private void schedule()
+    {
+        if ( isScheduled.compareAndSet( false, true ) )
+        {
+            final long delay = pushTime + TimeUnit.MILLISECONDS.toNanos( EVENT_INTERVAL ) - System.nanoTime();
+            scheduler.schedule( () -> pusher.execute( this::push ), Math.max( 0, delay ), TimeUnit.NANOSECONDS );
+        }
+    }
+    
+    private void push()
+    {
+        final Shared newest = shared.getAndSet( null );
+        final List<Object> batch = new ArrayList<>();
+        for ( PartialResult value = values.poll(); value != null; value = values.poll() )
+        {
+            batch.add( value.value );
+            numBytes.addAndGet( - value.size );
+        }
+        if ( newest != null || ! batch.isEmpty() )
+        {
+            try 
+            {
+                listener.processEvents( jobId, newest, batch );
+            }
+            catch ( RemoteException exception ) 
+            {
+                isClosed = true;
+                values.clear();
+                shared.set( null );
+                Logger.getLogger( getClass().getName() )
+                      .log( Level.WARNING, "Job {0}: listener unreachable; dropped.", jobId );
+            }
+        }
+        pushTime = System.nanoTime();
+        isScheduled.set( false );
+        // an event recorded during the push found a push in progress.
+        if ( shared.get() != null || ! values.isEmpty() )
+        {
+            schedule();
+        }
+    }
+    
+    static final private class PartialResult
+    {
+        final private Object value;
+        final private int size;
+        
+        private PartialResult( final Object value, final int size )
+        {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
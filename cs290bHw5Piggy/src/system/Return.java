@@ -24,12 +24,22 @@
 package system;
 
 import api.Shared;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
+import java.util.function.LongSupplier;
 
 /**
  * Time measures:
  * T1 = atomic task ? Telapsed : Telapsed.decompose + sum{ T1.child } + T1.compose
  * Tinf = atomic task ? Telapsed : Telapsed.decompose + max{ Tinf.child } + Tinf.compose
+ * 
+ * A Return carries the version of its Computer's Shared object, and 
+ * carries that Shared object only if it is newer than the Space's latest broadcast.
+ * 
+ * As with Task, a subclass may opt into a compact wire format by implementing 
+ * java.io.Externalizable.
  * @author Peter Cappello
  */
 abstract public class Return implements Serializable
@@ -37,6 +47,7 @@ abstract public class Return implements Serializable
     private long taskRunTime;   // elapsed time
     private long t1;            // work
     private long tInf;          // critical path length
+    private long sharedVersion;
     private Shared shared;
     
     public Shared shared() { return shared; }
@@ -46,6 +57,13 @@ abstract public class Return implements Serializable
         return this; 
     }
     
+    public long sharedVersion() { return sharedVersion; }
+    public Return sharedVersion( final long sharedVersion )
+    { 
+        this.sharedVersion = sharedVersion; 
+        return this; 
+    }
+    
     public long taskRunTime() { return taskRunTime; }
     public Return taskRunTime( final long taskRunTime ) 
     { 
@@ -58,7 +76,13 @@ abstract public class Return implements Serializable
     public long tInf() { return tInf; }
     public void tInf( final long tInf ) { this.tInf = tInf; }
     
-    public Return setIds( Task parentTask ){ return this; }
+    /**
+     * Give ids to the Task objects that this Return creates.
+     * @param parentTask the Task whose call method returned this.
+     * @param taskIds the source of unique Task ids.
+     * @return this.
+     */
+    public Return setIds( final Task parentTask, final LongSupplier taskIds ){ return this; }
         
     /**
      *
@@ -67,6 +91,35 @@ abstract public class Return implements Serializable
      */
     abstract public void process( final Task parentTask, final SpaceImpl space );
     
+    /**
+     * Write this Return's fields; used by subclasses that implement Externalizable.
+     * @param out
+     * @throws IOException 
+     */
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        out.writeLong( taskRunTime );
+        out.writeLong( t1 );
+        out.writeLong( tInf );
+        out.writeLong( sharedVersion );
+        out.writeObject( shared );
+    }
+    
+    /**
+     * Read this Return's fields; used by subclasses that implement Externalizable.
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        taskRunTime = in.readLong();
+        t1 = in.readLong();
+        tInf = in.readLong();
+        sharedVersion = in.readLong();
+        shared = (Shared) in.readObject();
+    }
+    
     @Override
     public String toString()
     {
@@ -23,54 +23,93 @@
  */
 package system;
 
-import api.NullShared;
+import api.JobHandle;
+import api.Listener;
+import api.Prunable;
 import api.ReturnValue;
 import api.Shared;
 import api.Space;
 import api.TaskCompose;
+import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import system.Job.VersionedShared;
+import util.ConcurrentLongMap;
+import static system.Configuration.BATCH_TIMEOUT;
+import static system.Configuration.LIVENESS_INTERVAL;
+import static system.Configuration.MAX_BATCH_SIZE;
+import static system.Configuration.PRIORITY_QUEUE;
 import static system.Configuration.SPACE_CALLABLE;
+import static system.Configuration.TASKS_IN_FLIGHT;
+import static system.Configuration.VIRTUAL_WORKER_PROXIES;
+import static system.Configuration.WORK_STEALING;
 
 /**
  * SpaceImpl implements the space for coordinating sending/receiving Task and Result objects.
+ * It services concurrent jobs, which share its Computers: see TaskQueueFairShare.
+ * A job's Shared object is not sent with each Task: when it improves, the Space 
+ * broadcasts it, with a new version number, to its registered Computers.
  * @author Peter Cappello
  */
 public final class SpaceImpl extends UnicastRemoteObject implements Space
 {
     static final public int PROXIES_PER_PROCESSOR = 2;
     static final public int FINAL_RETURN_VALUE = -1;
-    static final private AtomicInteger computerIds = new AtomicInteger();
+    static final public int DEFAULT_JOB_WEIGHT = 1;
+    static final private AtomicInteger computerIds = new AtomicInteger( 1 ); // 0: the Space's own ids.
     
-    final private AtomicInteger taskIds = new AtomicInteger();
-    final private BlockingQueue<Task>     readyTaskQ = new LinkedBlockingQueue<>();
+    final private AtomicLong taskIds = new AtomicLong();
+    final private TaskQueueFairShare readyTaskQ = new TaskQueueFairShare( () -> 
+              WORK_STEALING  ? new TaskQueueWorkStealing() 
+            : PRIORITY_QUEUE ? new TaskQueuePriority() 
+            : new TaskQueueFifo() );
     final private BlockingQueue<ReturnValue> resultQ = new LinkedBlockingQueue<>();
     final private Map<Computer, ComputerProxy> computerProxies = Collections.synchronizedMap( new HashMap<>() );
-    final private Map<UUID, TaskCompose>        waitingTaskMap = Collections.synchronizedMap( new HashMap<>() );
-    final private AtomicInteger numTasks = new AtomicInteger();
+    final private ConcurrentLongMap<Job> jobs = new ConcurrentLongMap<>();
     final private ComputerImpl computerInternal;
-    final private Boolean sharedLock = true;
-          private UUID rootTaskReturnValue;
-          private Shared shared = new NullShared();
-          private long t1   = 0;
-          private long tInf = 0;
+    final private ExecutorService notifier    = Executors.newCachedThreadPool( SpaceImpl::daemonThread );
+    final private ScheduledExecutorService eventScheduler = Executors.newSingleThreadScheduledExecutor( SpaceImpl::daemonThread );
+    final private ThreadFactory workerThreadFactory;
     
-    public SpaceImpl() throws RemoteException 
+    public SpaceImpl() throws RemoteException { this( new WorkerThreadFactory( VIRTUAL_WORKER_PROXIES ) ); }
+    
+    /**
+     * @param workerThreadFactory creates the threads that run the WorkerProxy objects.
+     * @throws RemoteException 
+     */
+    SpaceImpl( final ThreadFactory workerThreadFactory ) throws RemoteException 
     {
+        this.workerThreadFactory = workerThreadFactory;
         if ( SPACE_CALLABLE )
         {
             computerInternal = new ComputerImpl( this );
+            computerInternal.id( computerIds.getAndIncrement() );
         }
         Logger.getLogger( getClass().getName() )
               .log( Level.INFO, "Space started." );
@@ -78,21 +117,22 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
     
     public Computer computer() { return computerInternal; }
     
+    static private Thread daemonThread( final Runnable runnable )
+    {
+        final Thread thread = new Thread( runnable );
+        thread.setDaemon( true );
+        return thread;
+    }
+    
     /**
      * Compute a Task and return its Return.
-     * To ensure that the correct Return is returned, 
-     * this must be the only computation the Space is servicing.
+     * Other jobs may be computed concurrently.
      * 
      * @param rootTask task that encapsulates the overall computation.
      * @return the Task's Return object.
      */
     @Override
-    public ReturnValue compute( Task rootTask )
-    {
-        initTimeMeasures();
-        execute( rootTask );
-        return take();
-    }
+    public ReturnValue compute( Task rootTask ) { return compute( rootTask, null, DEFAULT_JOB_WEIGHT ); }
     
     /**
      *
@@ -101,30 +141,78 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
      * @return
      */
     @Override
-    public ReturnValue compute( Task rootTask, Shared shared )
+    public ReturnValue compute( Task rootTask, Shared shared ) { return compute( rootTask, shared, DEFAULT_JOB_WEIGHT ); }
+    
+    /**
+     * Compute a Task, as a job whose share of the Computers is weight.
+     * @param rootTask task that encapsulates the overall computation.
+     * @param shared the job's initial Shared object; if null, a NullShared.
+     * @param weight relative to the weights of the other jobs: positive.
+     * @return the Task's Return object.
+     */
+    @Override
+    public ReturnValue compute( Task rootTask, Shared shared, int weight )
     {
-        initTimeMeasures();
-        this.shared = shared;
-        execute( rootTask );
-        ReturnValue result = take();
-        reportTimeMeasures( result );
-        return result;
+        return execute( rootTask, shared, weight ).result().join();
     }
     
+    @Override
+    public JobHandle submit( Task rootTask ) throws RemoteException { return submit( rootTask, null, DEFAULT_JOB_WEIGHT ); }
+    
+    @Override
+    public JobHandle submit( Task rootTask, Shared shared ) throws RemoteException { return submit( rootTask, shared, DEFAULT_JOB_WEIGHT ); }
+    
     /**
-     * Put a task into the Task queue.
-     * @param task
+     * Start a job; return without waiting for it.
+     * @param rootTask task that encapsulates the overall computation.
+     * @param shared the job's initial Shared object; if null, a NullShared.
+     * @param weight relative to the weights of the other jobs: positive.
+     * @return the job's handle.
+     * @throws RemoteException 
      */
-    private void execute( Task rootTask ) 
+    @Override
+    public JobHandle submit( Task rootTask, Shared shared, int weight ) throws RemoteException
+    {
+        return new JobHandleImpl( execute( rootTask, shared, weight ), this, notifier );
+    }
+    
+    /**
+     * Start a job: put its root Task into the Task queue.
+     * Its time measures are reported when it completes.
+     * @param rootTask
+     * @param shared if null, a NullShared.
+     * @param weight
+     * @return the job.
+     */
+    private Job execute( final Task rootTask, final Shared shared, final int weight ) 
     { 
-//        rootTask.id( UUID.randomUUID() );
-        rootTaskReturnValue = UUID.randomUUID();
-        rootTask.composeId( rootTaskReturnValue );
+        if ( weight <= 0 )
+        {
+            throw new IllegalArgumentException( "Job weight must be positive: " + weight );
+        }
+        final Job job = new Job( makeTaskId(), weight );
+        jobs.put( job.id(), job );
+        if ( shared != null )
+        {
+            publish( job, job.shared( shared ) );
+        }
+        rootTask.jobId( job.id() );
+        rootTask.composeId( job.id() );
+        job.result().thenAccept( result -> reportTimeMeasures( job, result ) );
+        readyTaskQ.addJob( job.id(), weight );
         readyTaskQ.add( rootTask );
+        return job;
     }
     
+    /**
+     * Compute each Task as a job; its Return is put into the Return queue.
+     * @param taskList 
+     */
     @Override
-    synchronized public void putAll( final List<Task> taskList ) { readyTaskQ.addAll( taskList ); }
+    public void putAll( final List<Task> taskList ) 
+    { 
+        taskList.stream().forEach( task -> execute( task, null, DEFAULT_JOB_WEIGHT ).result().thenAccept( resultQ::add ) );
+    }
 
     /**
      * Take a Return from the Return queue.
@@ -142,8 +230,6 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
         assert false; // should never reach this point
         return null;
     }
-    
-    public Shared shared() { return shared; }
 
     /**
      * Register Computer with Space.  
@@ -157,6 +243,7 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
     {
         final ComputerProxy computerProxy = new ComputerProxy( computer, PROXIES_PER_PROCESSOR* numProcessors );
         computerProxies.put( computer, computerProxy );
+        computer.id( computerProxy.computerId );
         computerProxy.startWorkerProxies();
         Logger.getLogger( getClass().getName() )
               .log( Level.INFO, "Registered computer {0}.", computerProxy.computerId );    
@@ -174,31 +261,178 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
                       .rebind(Space.SERVICE_NAME, new SpaceImpl() );
     }
 
-    synchronized public void processResult( final Task parentTask, final Return result )
+    /**
+     * Process a Task's Return. Not synchronized: Return objects of independent 
+     * subtrees are processed concurrently; a TaskCompose serializes only its own args.
+     * @param parentTask the Task whose Return is to be processed.
+     * @param result the Return object.
+     */
+    public void processResult( final Task parentTask, final Return result )
     { 
+        final Job job = job( parentTask );
+        if ( job == null )
+        {
+            return; // its job was cancelled.
+        }
+        newerShared( job, result.shared() );
+        job.processed();
         result.process( parentTask, this );
-        shared = newerShared( result.shared() );
-        t1 += result.taskRunTime();
-        numTasks.getAndIncrement();
     }
     
-    private Shared newerShared( final Shared that )
+    /**
+     * @param task
+     * @return task's job, or null, if it was cancelled.
+     */
+    private Job job( final Task task ) 
+    { 
+        final Job job = jobs.get( task.jobId() );
+        return job == null || job.isCancelled() ? null : job; 
+    }
+    
+    private void newerShared( final Job job, final Shared that )
+    {
+        if ( that == null )
+        {
+            return;
+        }
+        final VersionedShared newer = job.newerShared( that );
+        if ( newer != null )
+        {
+            publish( job, newer );
+        }
+    }
+    
+    /**
+     * Update the internal Computer now; broadcast to the other Computers asynchronously.
+     * The job's Listener objects receive it, too.
+     * @param job the job whose Shared object it is.
+     * @param versionedShared the job's newest Shared object.
+     */
+    private void publish( final Job job, final VersionedShared versionedShared )
+    {
+        if ( SPACE_CALLABLE )
+        {
+            computerInternal.shared( job.id(), versionedShared.version, versionedShared.shared );
+        }
+        broadcast( job );
+        job.listeners().stream().forEach( listener -> listener.shared( versionedShared.shared ) );
+    }
+    
+    /**
+     * Stream a job's intermediate results to listener.
+     * @param job
+     * @param listener 
+     */
+    void addListener( final Job job, final Listener listener )
+    {
+        job.listeners().add( new ListenerProxy( job.id(), listener, eventScheduler, notifier ) );
+    }
+    
+    /**
+     * Stream a partial result to the job's Listener objects.
+     * @param jobId
+     * @param value a value that is an input of a waiting TaskCompose.
+     * @param size an estimate of value's size, in bytes.
+     */
+    public void putPartialResult( final long jobId, final Object value, final int size )
+    {
+        final Job job = jobs.get( jobId );
+        if ( job != null )
+        {
+            job.listeners().stream().forEach( listener -> listener.value( value, size ) );
+        }
+    }
+    
+    /**
+     * Push a job's newest Shared object to each Computer that lacks it, 
+     * independently: a slow or failed Computer delays only its own pushes.
+     * @param job
+     */
+    private void broadcast( final Job job ) { computerProxies().stream().forEach( computerProxy -> computerProxy.broadcast( job ) ); }
+    
+    private List<ComputerProxy> computerProxies()
+    {
+        synchronized ( computerProxies )
+        {
+            return new ArrayList<>( computerProxies.values() );
+        }
+    }
+    
+    public long makeTaskId() { return taskIds.incrementAndGet(); }
+    
+    /**
+     * Take a ready Task that is not stale, waiting if necessary.
+     * @return a ready Task.
+     * @throws InterruptedException 
+     */
+    private Task takeReadyTask() throws InterruptedException
     {
-        synchronized ( sharedLock )
+        Task task = readyTaskQ.take();
+        while ( isStale( task ) )
         {
-            return this.shared.isOlderThan( that ) ? that : this.shared;
+            task = readyTaskQ.take();
         }
+        return task;
     }
     
-    public int makeTaskId() { return taskIds.incrementAndGet(); }
+    /**
+     * Take a ready Task that is not stale, if there is one.
+     * @return a ready Task, or null.
+     */
+    private Task pollReadyTask()
+    {
+        Task task = readyTaskQ.poll();
+        while ( task != null && isStale( task ) )
+        {
+            task = readyTaskQ.poll();
+        }
+        return task;
+    }
     
-    public TaskCompose getCompose( final UUID composeId ) { return waitingTaskMap.get( composeId ); }
+    /**
+     * If task is Prunable, and stale with respect to the current Shared object of its job, 
+     * process its stale Return, instead of dispatching it.
+     * The Task objects of a cancelled job are stale.
+     * @param task a ready Task.
+     * @return true if and only if task is stale.
+     */
+    private boolean isStale( final Task task )
+    {
+        final Job job = job( task );
+        if ( job == null )
+        {
+            return true;
+        }
+        final Shared current = job.shared().shared;
+        if ( ! ( task instanceof Prunable ) || ! ( (Prunable) task ).isStale( current ) )
+        {
+            return false;
+        }
+        job.stale();
+        processResult( task, ( (Prunable) task ).staleReturn( current ) );
+        return true;
+    }
+    
+    /**
+     * @param jobId
+     * @param composeId
+     * @return the waiting TaskCompose, or null, if its job was cancelled.
+     */
+    public TaskCompose getCompose( final long jobId, final long composeId ) 
+    { 
+        final Job job = jobs.get( jobId );
+        return job == null ? null : job.waitingTaskMap().get( composeId ); 
+    }
             
     public void putCompose( final TaskCompose compose )
     {
-        assert waitingTaskMap.get( compose.id() ) == null : compose.id(); 
-        waitingTaskMap.put( compose.id(), compose );
-        assert waitingTaskMap.get( compose.id() ) != null;
+        final Job job = job( compose );
+        if ( job == null )
+        {
+            return; // its job was cancelled.
+        }
+        assert job.waitingTaskMap().get( compose.id() ) == null : compose.id(); 
+        job.waitingTaskMap().put( compose.id(), compose );
     }
     
     /**
@@ -207,38 +441,106 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
      */
     public void putReadyTask( final Task task ) 
     { 
-        assert waitingTaskMap.get( task.composeId() ) != null 
-            || task.composeId() == rootTaskReturnValue : task.composeId();
         try 
         { 
-            processResult( task, computer().execute( task, shared() ) );
+            processResult( task, computer().execute( task ) );
         }
         catch ( RemoteException ignore ) { /* Not a Remote invocation. */ } 
     }
     
     public void putReadyTasks( final List<? extends Task> tasks ) { readyTaskQ.addAll( tasks ); }
     
-    public void removeWaitingTask( final UUID composeId ) { waitingTaskMap.remove( composeId ); }
+    public void removeWaitingTask( final long jobId, final long composeId ) 
+    { 
+        final Job job = jobs.get( jobId );
+        if ( job != null )
+        {
+            job.waitingTaskMap().remove( composeId ); 
+        }
+    }
     
-    public void putResult( final ReturnValue result ) { resultQ.add( result ); }
+    /**
+     * End a job: complete its result.
+     * @param jobId
+     * @param result the ReturnValue of its root Task.
+     */
+    public void putResult( final long jobId, final ReturnValue result ) 
+    { 
+        final Job job = jobs.get( jobId );
+        if ( job != null && job.result().complete( result ) ) // else, it was cancelled or ended: the result is dropped.
+        {
+            end( job );
+        }
+    }
     
-    public void tInf( final long tInf ) { this.tInf = tInf; }
+    /**
+     * Cancel a job: its queued Task objects and waiting TaskCompose objects 
+     * are discarded; the Computers abandon its Task objects, cooperatively; 
+     * the Return objects of its dispatched Task objects are discarded. 
+     * The job ends when none of its Task objects is in flight.
+     * @param jobId
+     * @return true if and only if the job was cancelled by this invocation.
+     */
+    boolean cancel( final long jobId )
+    {
+        final Job job = jobs.get( jobId );
+        if ( job == null || ! job.result().cancel( false ) )
+        {
+            return false;
+        }
+        readyTaskQ.removeJob( jobId );
+        job.waitingTaskMap().clear();
+        if ( SPACE_CALLABLE )
+        {
+            computerInternal.cancel( jobId );
+        }
+        computerProxies().stream().forEach( computerProxy -> computerProxy.cancel( jobId ) );
+        if ( job.numInFlight() == 0 )
+        {
+            end( job );
+        }
+        return true;
+    }
     
-    private void initTimeMeasures()
+    /**
+     * A dispatched Task returned, or was not sent. 
+     * If its job was cancelled, and this was its last Task in flight, the job ends.
+     * @param task 
+     */
+    private void returned( final Task task )
     {
-        numTasks.getAndSet( 0 );
-        t1 = 0;
-        tInf = 0;
+        final Job job = jobs.get( task.jobId() );
+        if ( job != null && job.returned() == 0 && job.isCancelled() )
+        {
+            end( job );
+        }
     }
     
-    public UUID rootTaskReturnValue() { return rootTaskReturnValue; }
+    /**
+     * Remove a job; the Computers discard its Shared object; its Listener objects are closed.
+     * @param job
+     */
+    private void end( final Job job )
+    {
+        if ( jobs.remove( job.id() ) == null )
+        {
+            return; // it ended already.
+        }
+        readyTaskQ.removeJob( job.id() );
+        job.listeners().stream().forEach( ListenerProxy::close );
+        if ( SPACE_CALLABLE )
+        {
+            computerInternal.endJob( job.id() );
+        }
+        computerProxies().stream().forEach( computerProxy -> computerProxy.endJob( job.id() ) );
+    }
     
-    private void reportTimeMeasures( final Return result )
+    private void reportTimeMeasures( final Job job, final Return result )
     {
         Logger.getLogger( getClass().getCanonicalName() )
               .log( Level.INFO, 
-                    "\n\tTotal tasks: {0} \n\tT_1: {1}ms.\n\tT_inf: {2}ms.\n\tT_1 / T_inf: {3}", 
-                    new Object[]{ numTasks, result.t1() / 1000000, result.tInf() / 1000000, result.t1() / result.tInf() } );
+                    "\n\tJob: {0} \n\tTotal tasks: {1} \n\tStale tasks: {2} \n\tT_1: {3}ms.\n\tT_inf: {4}ms.\n\tT_1 / T_inf: {5}", 
+                    new Object[]{ job.id(), job.numTasks(), job.numStaleTasks(), result.t1() / 1000000, result.tInf() / 1000000, result.t1() / result.tInf() } );
     }
     
     private class ComputerProxy
@@ -246,10 +548,41 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
         final private Computer computer;
         final private int computerId = computerIds.getAndIncrement();
         final private Map<Integer, WorkerProxy> workerMap = new HashMap<>();
+        
+        // by job: the version of the last Shared object pushed to computer.
+        final private ConcurrentLongMap<Long> sharedVersions = new ConcurrentLongMap<>();
+        
+        // held across remote invocations: a monitor would pin a virtual thread to its carrier.
+        final private ReentrantLock sharedLock = new ReentrantLock();
+        
+        // the broadcasts, cancellations and job ends to computer, in order.
+        final private ExecutorService broadcaster = Executors.newSingleThreadExecutor( SpaceImpl::daemonThread );
+        
+        // pipelined mode only: TASKS_IN_FLIGHT > 0
+        final private Semaphore inFlightPermits = new Semaphore( TASKS_IN_FLIGHT );
+        final private Map<Long, List<Task>> inFlightBatches = new ConcurrentHashMap<>();
+        final private AtomicLong batchIds = new AtomicLong();
+        final private ResultListener resultListener;
+        final private AtomicBoolean isUnregistered = new AtomicBoolean();
+        final private Dispatcher dispatcher;
+        private volatile long lastReturnTime = System.nanoTime(); // of a batch's results, or of no batch in flight.
+        
+        // Exponentially weighted moving averages, in ns., used to size batches.
+        // Updates from different threads may race: they are estimates.
+        private volatile long meanTaskRunTime;
+        private volatile long meanLatency;
 
-        ComputerProxy( final Computer computer, final int numWorkerProxies )
+        ComputerProxy( final Computer computer, final int numWorkerProxies ) throws RemoteException
         { 
             this.computer = computer;
+            if ( TASKS_IN_FLIGHT > 0 )
+            {
+                dispatcher = new Dispatcher();
+                resultListener = new ResultListenerImpl();
+                return;
+            }
+            dispatcher = null;
+            resultListener = null;
             for ( int id = 0; id < numWorkerProxies; id++ )
             {
                 WorkerProxy workerProxy = new WorkerProxy( id );
@@ -259,27 +592,354 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
         
         private void startWorkerProxies()
         {
+            if ( TASKS_IN_FLIGHT > 0 )
+            {
+                dispatcher.start();
+                new Watchdog().start();
+                return;
+            }
             for ( WorkerProxy workerProxy : workerMap.values() )
             {
-                workerProxy.start();
+                workerThreadFactory.newThread( workerProxy ).start();
             }
         }
         
-        private void unregister( final Task task, final Computer computer, final int workerProxyId )
+        private void unregister( final List<Task> tasks, final Computer computer, final int workerProxyId )
         {
-            readyTaskQ.add( task );
+            tasks.stream().forEach( task -> requeue( task ) );
             workerMap.remove( workerProxyId );
             Logger.getLogger( getClass().getName() )
                   .log( Level.WARNING, "Computer {0}: Worker failed.", workerProxyId );
             if ( workerMap.isEmpty() )
             {
                 computerProxies.remove( computer );
+                broadcaster.shutdownNow();
                 Logger.getLogger( getClass().getName() )
                       .log( Level.WARNING, "Computer {0} failed.", computerId );
             }
         }
+        
+        /**
+         * Pipelined mode: requeue every batch that is in flight to the failed Computer, 
+         * and stop the Dispatcher. Only the first call has effect: 
+         * the Dispatcher and the Watchdog each may detect the failure.
+         */
+        private void unregister()
+        {
+            if ( ! isUnregistered.compareAndSet( false, true ) )
+            {
+                return;
+            }
+            requeueInFlightBatches();
+            computerProxies.remove( computer );
+            broadcaster.shutdownNow();
+            try 
+            { 
+                UnicastRemoteObject.unexportObject( resultListener, true ); 
+            }
+            catch ( NoSuchObjectException ignore ) {}
+            dispatcher.interrupt();
+            Logger.getLogger( getClass().getName() )
+                  .log( Level.WARNING, "Computer {0} failed.", computerId );
+        }
+        
+        private void requeueInFlightBatches()
+        {
+            for ( Long batchId : inFlightBatches.keySet() )
+            {
+                final List<Task> batch = inFlightBatches.remove( batchId );
+                if ( batch != null )
+                {
+                    batch.stream().forEach( task -> requeue( task ) );
+                }
+            }
+        }
+        
+        /**
+         * @param job
+         * @return the version of the job's Shared object that computer has: 
+         * 0, the NullShared object, unless one was pushed.
+         */
+        private long sharedVersion( final Job job )
+        {
+            final Long sharedVersion = sharedVersions.get( job.id() );
+            return sharedVersion == null ? 0 : sharedVersion;
+        }
+        
+        /**
+         * Push a job's Shared object to computer, unless it already has that version.
+         * Under sharedLock: the broadcaster and the worker proxies push.
+         * @param job
+         * @param versionedShared 
+         */
+        private void push( final Job job, final VersionedShared versionedShared )
+        {
+            sharedLock.lock();
+            try 
+            {
+                if ( sharedVersion( job ) >= versionedShared.version )
+                {
+                    return;
+                }
+                computer.shared( job.id(), versionedShared.version, versionedShared.shared );
+                sharedVersions.put( job.id(), versionedShared.version );
+            }
+            catch ( RemoteException exception ) 
+            { 
+                // its worker proxies unregister it.
+                Logger.getLogger( getClass().getName() )
+                      .log( Level.WARNING, "Computer {0}: Shared object not delivered.", computerId );
+            }
+            finally
+            {
+                sharedLock.unlock();
+            }
+        }
+        
+        /**
+         * A dispatched Task is made ready again: computer failed.
+         * @param task 
+         */
+        private void requeue( final Task task )
+        {
+            returned( task );
+            readyTaskQ.add( task );
+        }
+        
+        /**
+         * Push a job's newest Shared object to computer, asynchronously. 
+         * A burst of improvements is coalesced: a push that finds computer 
+         * already has the newest is skipped.
+         * @param job
+         */
+        private void broadcast( final Job job )
+        {
+            execute( () -> 
+            {
+                if ( jobs.get( job.id() ) == job )
+                {
+                    push( job, job.shared() );
+                } // else the job ended: computer discards its Shared object.
+            } );
+        }
+        
+        private void cancel( final long jobId )
+        {
+            execute( () -> 
+            {
+                try 
+                {
+                    computer.cancel( jobId );
+                }
+                catch ( RemoteException ignore ) {} // its worker proxies unregister it.
+            } );
+        }
+        
+        private void endJob( final long jobId )
+        {
+            execute( () -> 
+            {
+                sharedLock.lock();
+                try 
+                {
+                    sharedVersions.remove( jobId );
+                    computer.endJob( jobId );
+                }
+                catch ( RemoteException ignore ) {} // its worker proxies unregister it.
+                finally
+                {
+                    sharedLock.unlock();
+                }
+            } );
+        }
+        
+        /**
+         * Invoke computer on its broadcaster thread, after the invocations executed before.
+         * @param invocation 
+         */
+        private void execute( final Runnable invocation )
+        {
+            try
+            {
+                broadcaster.execute( invocation );
+            }
+            catch ( RejectedExecutionException ignore ) {} // computer failed.
+        }
+        
+        /**
+         * If computer executed task with a Shared object older than the one 
+         * current when task was dispatched, it missed a broadcast: push again.
+         * @param task a Task that computer executed.
+         * @param result its Return.
+         */
+        private void checkSharedVersion( final Task task, final Return result )
+        {
+            final Job job = job( task );
+            if ( job != null && result.sharedVersion() < task.sharedVersion() )
+            {
+                sharedVersions.put( job.id(), result.sharedVersion() );
+                broadcast( job );
+            }
+        }
+        
+        /**
+         * The number of Task objects to send in 1 remote invocation: 
+         * enough to amortize the RMI latency over the Task run times.
+         * @return the batch size, in [ 1, MAX_BATCH_SIZE ].
+         */
+        private int batchSize()
+        {
+            final long taskRunTime = Math.max( 1, meanTaskRunTime );
+            return (int) Math.min( MAX_BATCH_SIZE, 1 + meanLatency / taskRunTime );
+        }
+        
+        /**
+         * Update the run time estimate, and the granularity of each Task's job.
+         * @param batch the Task objects of a batch.
+         * @param results their Return objects.
+         * @return the sum of the Task run times.
+         */
+        private long observeRunTime( final List<Task> batch, final List<Return> results )
+        {
+            long runTime = 0;
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                runTime += results.get( i ).taskRunTime();
+                final Job job = job( batch.get( i ) );
+                if ( job != null )
+                {
+                    job.granularity().observe( batch.get( i ), results.get( i ), meanLatency );
+                }
+            }
+            meanTaskRunTime = ( 7 * meanTaskRunTime + runTime / results.size() ) / 8;
+            return runTime;
+        }
+        
+        /**
+         * Update the latency estimate.
+         * @param latency the time of a remote invocation, less the Task run times.
+         */
+        private void observeLatency( final long latency )
+        {
+            meanLatency = ( 7 * meanLatency + Math.max( 0, latency ) ) / 8;
+        }
+        
+        private void execute( final List<Task> batch ) throws RemoteException
+        {
+            final long startTime = System.nanoTime();
+            if ( batch.size() == 1 )
+            {
+                final Task task = batch.get( 0 );
+                final Return result = computer.execute( task );
+                final long elapsedTime = System.nanoTime() - startTime;
+                observeLatency( elapsedTime - observeRunTime( batch, Collections.singletonList( result ) ) );
+                process( task, result );
+                return;
+            }
+            final List<Return> results = computer.execute( batch );
+            final long elapsedTime = System.nanoTime() - startTime;
+            observeLatency( elapsedTime - observeRunTime( batch, results ) );
+            for ( int i = 0; i < batch.size(); i++ )
+            {
+                process( batch.get( i ), results.get( i ) );
+            }
+        }
+        
+        /**
+         * Process the Return of a Task that computer executed.
+         * @param task
+         * @param result 
+         */
+        private void process( final Task task, final Return result )
+        {
+            checkSharedVersion( task, result );
+            returned( task );
+            processResult( task, result );
+        }
+        
+        /**
+         * Fill a batch of at most batchSize() Task objects, blocking until the first is ready.
+         * Stale Task objects, and those of cancelled jobs, are not dispatched.
+         * @param batch the empty batch.
+         * @param inFlightPermits if not null, each Task after the first requires a permit.
+         * @throws InterruptedException 
+         */
+        private void fill( final List<Task> batch, final Semaphore inFlightPermits ) throws InterruptedException
+        {
+            while ( batch.isEmpty() )
+            {
+                take( batch, inFlightPermits );
+                dispatch( batch, inFlightPermits );
+            }
+        }
+        
+        private void take( final List<Task> batch, final Semaphore inFlightPermits ) throws InterruptedException
+        {
+            batch.add( takeReadyTask() );
+            for ( final int batchSize = batchSize(); batch.size() < batchSize; )
+            {
+                if ( inFlightPermits != null && ! inFlightPermits.tryAcquire() )
+                {
+                    break;
+                }
+                final Task task = pollReadyTask();
+                if ( task == null )
+                {
+                    if ( inFlightPermits != null )
+                    {
+                        inFlightPermits.release();
+                    }
+                    break;
+                }
+                batch.add( task );
+            }
+        }
+        
+        /**
+         * Count each Task of batch as in flight; remove those of cancelled jobs.
+         * Each Task is stamped with the current version of its job's Shared object; 
+         * if computer lacks that version, it is pushed before the batch is sent.
+         * Each Task is stamped with its job's current solve depth, 
+         * and as surplus, if some worker is idle.
+         * @param batch 
+         * @param inFlightPermits if not null, the permits of removed Task objects 
+         * are released, but 1, if batch is emptied.
+         */
+        private void dispatch( final List<Task> batch, final Semaphore inFlightPermits )
+        {
+            final int batchSize = batch.size();
+            for ( Iterator<Task> iterator = batch.iterator(); iterator.hasNext(); )
+            {
+                final Task task = iterator.next();
+                final Job job = job( task );
+                if ( job == null )
+                {
+                    iterator.remove();
+                    continue;
+                }
+                job.dispatched();
+                if ( job.isCancelled() ) // after dispatched: see cancel.
+                {
+                    returned( task );
+                    iterator.remove();
+                    continue;
+                }
+                final VersionedShared current = job.shared();
+                task.sharedVersion( current.version );
+                task.solveDepth( job.granularity().solveDepth() );
+                task.isSurplus( readyTaskQ.isWaiting() );
+                if ( sharedVersion( job ) < current.version )
+                {
+                    push( job, current );
+                }
+            }
+            if ( inFlightPermits != null )
+            {
+                inFlightPermits.release( Math.min( batchSize - batch.size(), batchSize - 1 ) );
+            }
+        }
              
-        private class WorkerProxy extends Thread
+        private class WorkerProxy implements Runnable
         {
             final private Integer id;
             
@@ -288,17 +948,20 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
             @Override
             public void run()
             {
+                TaskQueueWorkStealing.enlist();
+                final List<Task> batch = new ArrayList<>();
                 while ( true )
                 {
-                    Task task = null;
                     try 
                     { 
-                        task = readyTaskQ.take();
-                        processResult( task, computer.execute( task, shared ) );
+                        fill( batch, null );
+                        execute( batch );
+                        batch.clear();
                     }
                     catch ( RemoteException ignore )
                     {
-                        unregister( task, computer, id );
+                        readyTaskQ.retire();
+                        unregister( batch, computer, id );
                         ignore.printStackTrace();
                         return;
                     } 
@@ -310,5 +973,128 @@ public final class SpaceImpl extends UnicastRemoteObject implements Space
                 }
             }   
         }
+        
+        /**
+         * Pipelined mode: keep up to TASKS_IN_FLIGHT Task objects submitted to the Computer;
+         * their Return objects arrive via the ResultListener.
+         */
+        private class Dispatcher extends Thread
+        {
+            @Override
+            public void run()
+            {
+                while ( ! isUnregistered.get() )
+                {
+                    final List<Task> batch = new ArrayList<>();
+                    try 
+                    { 
+                        inFlightPermits.acquire();
+                        fill( batch, inFlightPermits );
+                        final long batchId = batchIds.getAndIncrement();
+                        inFlightBatches.put( batchId, batch );
+                        final long startTime = System.nanoTime();
+                        computer.submit( batchId, batch, resultListener );
+                        observeLatency( System.nanoTime() - startTime );
+                    }
+                    catch ( RemoteException ignore )
+                    {
+                        unregister();
+                        ignore.printStackTrace();
+                    } 
+                    catch ( InterruptedException ex ) 
+                    { 
+                        if ( ! isUnregistered.get() )
+                        {
+                            Logger.getLogger( getClass().getName() )
+                                  .log( Level.INFO, null, ex ); 
+                        }
+                    }
+                }
+                // a batch submitted as the Watchdog unregistered computer is requeued here.
+                requeueInFlightBatches();
+                readyTaskQ.retire();
+            }
+        }
+        
+        /**
+         * Pipelined mode: a Computer that dies, or hangs, after accepting batches 
+         * throws nothing: it just returns no results, and the Dispatcher may wait forever 
+         * for a permit or a ready Task. So, while batches are in flight, computer is 
+         * pinged every LIVENESS_INTERVAL. It failed, if the ping fails, or if it 
+         * returned no batch for BATCH_TIMEOUT: it is unregistered, and its 
+         * in-flight batches are requeued.
+         */
+        private class Watchdog extends Thread
+        {
+            private Watchdog() { setDaemon( true ); }
+            
+            @Override
+            public void run()
+            {
+                while ( ! isUnregistered.get() )
+                {
+                    try
+                    {
+                        Thread.sleep( LIVENESS_INTERVAL );
+                        if ( inFlightBatches.isEmpty() )
+                        {
+                            lastReturnTime = System.nanoTime();
+                            continue;
+                        }
+                        final Future<Void> ping = notifier.submit( () -> 
+                        {
+                            computer.ping();
+                            return null;
+                        } );
+                        if ( BATCH_TIMEOUT > 0 )
+                        {
+                            final long sinceReturn = ( System.nanoTime() - lastReturnTime ) / 1000000;
+                            ping.get( Math.max( 0, BATCH_TIMEOUT - sinceReturn ), TimeUnit.MILLISECONDS );
+                            if ( ( System.nanoTime() - lastReturnTime ) / 1000000 > BATCH_TIMEOUT )
+                            {
+                                throw new TimeoutException();
+                            }
+                        }
+                        else
+                        {
+                            ping.get();
+                        }
+                    }
+                    catch ( ExecutionException | TimeoutException exception )
+                    {
+                        Logger.getLogger( getClass().getName() )
+                              .log( Level.WARNING, "Computer {0}: unreachable, or returned no batch for {1} ms.", 
+                                    new Object[]{ computerId, BATCH_TIMEOUT } );
+                        unregister();
+                    }
+                    catch ( InterruptedException ignore ) 
+                    {
+                        return;
+                    }
+                }
+            }
+        }
+        
+        private class ResultListenerImpl extends UnicastRemoteObject implements ResultListener
+        {
+            private ResultListenerImpl() throws RemoteException {}
+            
+            @Override
+            public void processResults( final long batchId, final List<Return> results )
+            {
+                final List<Task> batch = inFlightBatches.remove( batchId );
+                if ( batch == null )
+                {
+                    return; // batch was requeued.
+                }
+                lastReturnTime = System.nanoTime();
+                observeRunTime( batch, results );
+                for ( int i = 0; i < batch.size(); i++ )
+                {
+                    process( batch.get( i ), results.get( i ) );
+                }
+                inFlightPermits.release( batch.size() );
+            }
+        }
     }
 }
@@ -25,34 +25,87 @@ package system;
 import api.Shared;
 import api.Space;
 import api.TaskCompose;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
-import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
 
 /**
- *
+ * A Task subclass may opt into a compact wire format by implementing 
+ * java.io.Externalizable: it then has a public no-argument constructor, 
+ * and its writeExternal and readExternal methods first call super's.
  * @author Peter Cappello
  */
 abstract public class Task implements Serializable, Callable<Return> 
 { 
-    private UUID id;
-    private UUID composeId;
+    private long id;
+    private long jobId;
+    private long composeId;
     private int composeArgNum;
+    private int depth;
+    private long sharedVersion;
+    private int solveDepth = Integer.MAX_VALUE;
+    private boolean isSurplus;
     private final Boolean sharedLock = true;
-    private Shared shared;
+    private transient Shared shared; // not sent: Computers receive Shared objects by broadcast.
+    private transient BooleanSupplier isCancelled; // set by the executing Computer.
     protected Space space;
     
     @Override
     abstract public Return call(); 
         
-    public UUID  id() { return id; }
-    public void id( final UUID id ) { this.id = id; }
+    public long id() { return id; }
+    public void id( final long id ) { this.id = id; }
+    
+    /**
+     * @return the id of this Task's job: its root Task's compose id, 
+     * so a ReturnValue whose compose id is its job id is the job's result.
+     */
+    public long jobId() { return jobId; }
+    public void jobId( final long jobId ) { this.jobId = jobId; }
     
     public int  composeArgNum() { return composeArgNum; }
     public void composeArgNum( final int composeArgNum ) { this.composeArgNum = composeArgNum; }
     
-    public UUID  composeId() { return composeId; }
-    public void composeId( final UUID composeId ) { this.composeId = composeId; }
+    public long composeId() { return composeId; }
+    public void composeId( final long composeId ) { this.composeId = composeId; }
+    
+    /**
+     * @return the number of decompositions between the root task and this task.
+     */
+    public int  depth() { return depth; }
+    public void depth( final int depth ) { this.depth = depth; }
+    
+    /**
+     * When Configuration.PRIORITY_QUEUE, the Space dispatches ready Task 
+     * objects of lesser priority first, approximately. 
+     * Override, e.g., to return a branch-and-bound task's lower bound.
+     * @return by default, -depth: deeper tasks first, which bounds the number of ready tasks.
+     */
+    public double priority() { return - depth; }
+        
+    /**
+     * @return the version of the Space's Shared object when this Task was dispatched.
+     */
+    public long sharedVersion() { return sharedVersion; }
+    public void sharedVersion( final long sharedVersion ) { this.sharedVersion = sharedVersion; }
+    
+    /**
+     * @return the depth at and below which a TaskRecursive that can be solved 
+     * is solved, instead of decomposed: set by the Space from measured run times.
+     */
+    public int  solveDepth() { return solveDepth; }
+    public void solveDepth( final int solveDepth ) { this.solveDepth = solveDepth; }
+    
+    /**
+     * @return true if and only if the Space had idle workers when it dispatched this Task: 
+     * a Computer returns its decomposition to the Space, for redistribution, 
+     * instead of executing its subtree locally.
+     */
+    public boolean isSurplus() { return isSurplus; }
+    public void    isSurplus( final boolean isSurplus ) { this.isSurplus = isSurplus; }
         
     public Shared shared() { return shared; }
     public Task   shared( final Shared shared ) 
@@ -69,5 +122,48 @@ abstract public class Task implements Serializable, Callable<Return>
         }
     }
     
+    /**
+     * Was this Task's job cancelled? A Task that runs long checks now and then: 
+     * if so, it throws a CancellationException; its Computer abandons it.
+     * @return true if and only if this Task's job was cancelled.
+     */
+    public boolean isCancelled() { return isCancelled != null && isCancelled.getAsBoolean(); }
+    public void    isCancelled( final BooleanSupplier isCancelled ) { this.isCancelled = isCancelled; }
+    
     public boolean isSpaceCallable() { return this instanceof TaskCompose; }
+    
+    /**
+     * Write this Task's fields; used by subclasses that implement Externalizable.
+     * @param out
+     * @throws IOException 
+     */
+    public void writeExternal( final ObjectOutput out ) throws IOException
+    {
+        out.writeLong( id );
+        out.writeLong( jobId );
+        out.writeLong( composeId );
+        out.writeInt( composeArgNum );
+        out.writeInt( depth );
+        out.writeLong( sharedVersion );
+        out.writeInt( solveDepth );
+        out.writeBoolean( isSurplus );
+    }
+    
+    /**
+     * Read this Task's fields; used by subclasses that implement Externalizable.
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException 
+     */
+    public void readExternal( final ObjectInput in ) throws IOException, ClassNotFoundException
+    {
+        id = in.readLong();
+        jobId = in.readLong();
+        composeId = in.readLong();
+        composeArgNum = in.readInt();
+        depth = in.readInt();
+        sharedVersion = in.readLong();
+        solveDepth = in.readInt();
+        isSurplus = in.readBoolean();
+    }
 }
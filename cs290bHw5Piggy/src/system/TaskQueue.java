@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.util.List;
+
+/**
+ * The Space's queue of Task objects that are ready to be executed.
+ * @author Peter Cappello
+ */
+interface TaskQueue 
+{
+    /**
+     * Add a Task that was not produced by a worker, e.g., a root task.
+     * @param task the ready Task.
+     */
+    void add( Task task );
+    
+    /**
+     * Add the Task objects produced by the calling thread's decomposition.
+     * @param tasks the ready Task objects.
+     */
+    void addAll( List<? extends Task> tasks );
+    
+    /**
+     * Take a Task, waiting if necessary until one is ready.
+     * @return a ready Task.
+     * @throws InterruptedException
+     */
+    Task take() throws InterruptedException;
+    
+    /**
+     * Take a Task, if one is ready.
+     * @return a ready Task, or null if none is ready.
+     */
+    Task poll();
+    
+    /**
+     * The calling worker will take no more Task objects: 
+     * its queued Task objects are made available to the other workers.
+     */
+    void retire();
+    
+    /**
+     * The queue's job ended: its Task objects are dropped, 
+     * and the queue is not used again.
+     */
+    void discard();
+}
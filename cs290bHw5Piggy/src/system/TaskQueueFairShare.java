@@ -0,0 +1,263 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import util.ConcurrentLongMap;
+
+/**
+ * The ready Task objects of concurrent jobs: each job has its own TaskQueue,
+ * and the jobs share the workers by stride scheduling. 
+ * Each job has a pass, which advances by STRIDE / weight whenever one of its 
+ * Task objects is taken; a Task is taken from the job of least pass that has 
+ * a ready Task. So, jobs with ready Task objects are dispatched Task objects 
+ * in proportion to their weights. A job that becomes ready is not credited 
+ * for the time that it was idle: its pass is advanced to that of the job 
+ * dispatched last.
+ * 
+ * Selection takes no lock: a taker scans the jobs, a copy-on-write list, 
+ * and takes from the job's TaskQueue, which keeps its own concurrency, 
+ * e.g., TaskQueueWorkStealing. Concurrent takers may advance the passes 
+ * in either order: the shares are approximate. 
+ * Only a taker that finds no ready Task locks: it waits on a Condition 
+ * that an adder signals, if some taker waits.
+ * @author Peter Cappello
+ */
+final class TaskQueueFairShare implements TaskQueue
+{
+    static final private long STRIDE = 1 << 20;
+    
+    final private Supplier<TaskQueue> newTaskQueue;
+    final private ConcurrentLongMap<JobQueue> jobQueueMap = new ConcurrentLongMap<>();
+    final private List<JobQueue> jobQueues = new CopyOnWriteArrayList<>();
+    final private AtomicLong pass = new AtomicLong(); // of the job dispatched last.
+    final private ReentrantLock lock = new ReentrantLock();
+    final private Condition isReady = lock.newCondition();
+    final private AtomicInteger numWaiting = new AtomicInteger(); // takers waiting on isReady.
+    
+    /**
+     * @param newTaskQueue makes the TaskQueue of a job.
+     */
+    TaskQueueFairShare( final Supplier<TaskQueue> newTaskQueue ) { this.newTaskQueue = newTaskQueue; }
+    
+    /**
+     * Add a job, before any of its Task objects.
+     * @param jobId
+     * @param weight the job's share of the workers, relative to the other jobs' weights: positive.
+     */
+    void addJob( final long jobId, final int weight )
+    {
+        assert weight > 0;
+        final JobQueue jobQueue = new JobQueue( newTaskQueue.get(), weight, pass.get() );
+        jobQueueMap.put( jobId, jobQueue );
+        jobQueues.add( jobQueue );
+    }
+    
+    /**
+     * Remove a job: its Task objects, if any, are no longer taken.
+     * @param jobId 
+     */
+    void removeJob( final long jobId )
+    {
+        final JobQueue jobQueue = jobQueueMap.remove( jobId );
+        if ( jobQueue != null )
+        {
+            jobQueues.remove( jobQueue );
+            jobQueue.taskQueue.discard();
+        }
+    }
+    
+    @Override
+    public void add( final Task task ) 
+    { 
+        final JobQueue jobQueue = jobQueueMap.get( task.jobId() );
+        if ( jobQueue == null )
+        {
+            return; // its job was removed.
+        }
+        jobQueue.taskQueue.add( task );
+        ready( jobQueue, 1 );
+    }
+
+    @Override
+    public void addAll( final List<? extends Task> tasks ) 
+    {
+        if ( tasks.isEmpty() )
+        {
+            return;
+        }
+        // the Task objects of a decomposition are of 1 job.
+        final JobQueue jobQueue = jobQueueMap.get( tasks.get( 0 ).jobId() );
+        if ( jobQueue == null )
+        {
+            return;
+        }
+        jobQueue.taskQueue.addAll( tasks );
+        ready( jobQueue, tasks.size() );
+    }
+
+    @Override
+    public Task take() throws InterruptedException 
+    {
+        while ( true )
+        {
+            final Task task = poll();
+            if ( task != null )
+            {
+                return task;
+            }
+            lock.lock();
+            try
+            {
+                // counted before the check, as an adder counts its Task objects before it reads numWaiting.
+                numWaiting.incrementAndGet();
+                if ( ! isAnyReady() )
+                {
+                    isReady.await();
+                }
+            }
+            finally
+            {
+                numWaiting.decrementAndGet();
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Take a Task from the job of least pass that has one. If another taker 
+     * takes that job's last Task first, the job of next least pass is tried.
+     * @return a ready Task, or null if none is ready.
+     */
+    @Override
+    public Task poll() 
+    { 
+        final Object[] candidates = jobQueues.toArray();
+        for ( int numTried = 0; numTried < candidates.length; numTried++ )
+        {
+            int selected = -1;
+            for ( int i = 0; i < candidates.length; i++ )
+            {
+                final JobQueue jobQueue = (JobQueue) candidates[ i ];
+                if ( jobQueue != null && jobQueue.numTasks.get() > 0 
+                  && ( selected < 0 || jobQueue.pass.get() < ( (JobQueue) candidates[ selected ] ).pass.get() ) )
+                {
+                    selected = i;
+                }
+            }
+            if ( selected < 0 )
+            {
+                return null;
+            }
+            final JobQueue jobQueue = (JobQueue) candidates[ selected ];
+            final Task task = jobQueue.taskQueue.poll();
+            if ( task != null )
+            {
+                jobQueue.numTasks.decrementAndGet();
+                pass.set( jobQueue.pass.getAndAdd( STRIDE / jobQueue.weight ) );
+                return task;
+            }
+            candidates[ selected ] = null;
+        }
+        return null;
+    }
+
+    @Override
+    public void retire() { jobQueues.stream().forEach( jobQueue -> jobQueue.taskQueue.retire() ); }
+    
+    /**
+     * Remove every job.
+     */
+    @Override
+    public void discard() 
+    { 
+        final List<JobQueue> discarded = new ArrayList<>( jobQueues );
+        jobQueueMap.clear();
+        jobQueues.clear();
+        discarded.stream().forEach( jobQueue -> jobQueue.taskQueue.discard() );
+    }
+
+    /**
+     * @return true if and only if some taker is waiting for a Task: some worker is idle.
+     */
+    boolean isWaiting() { return numWaiting.get() > 0; }
+    
+    /**
+     * Count a job's newly ready Task objects; wake waiting takers.
+     * @param jobQueue
+     * @param numReady 
+     */
+    private void ready( final JobQueue jobQueue, final int numReady )
+    {
+        if ( jobQueue.numTasks.getAndAdd( numReady ) == 0 )
+        {
+            final long currentPass = pass.get();
+            jobQueue.pass.accumulateAndGet( currentPass, Math::max );
+        }
+        if ( numWaiting.get() == 0 )
+        {
+            return;
+        }
+        lock.lock();
+        try
+        {
+            // a taker per Task: waking them all would have most find nothing.
+            for ( int i = Math.min( numReady, numWaiting.get() ); i > 0; i-- )
+            {
+                isReady.signal();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    private boolean isAnyReady() { return jobQueues.stream().anyMatch( jobQueue -> jobQueue.numTasks.get() > 0 ); }
+    
+    /**
+     * A job's TaskQueue, and its scheduling state.
+     */
+    static final private class JobQueue
+    {
+        final private TaskQueue taskQueue;
+        final private int weight;
+        final private AtomicLong pass;
+        final private AtomicInteger numTasks = new AtomicInteger(); // counted after they are added.
+        
+        private JobQueue( final TaskQueue taskQueue, final int weight, final long pass )
+        {
+            this.taskQueue = taskQueue;
+            this.weight = weight;
+            this.pass = new AtomicLong( pass );
+        }
+    }
+}
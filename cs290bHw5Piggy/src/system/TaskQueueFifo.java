@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A single FIFO queue, shared by all workers.
+ * @author Peter Cappello
+ */
+final class TaskQueueFifo implements TaskQueue
+{
+    final private BlockingQueue<Task> readyTaskQ = new LinkedBlockingQueue<>();
+    
+    @Override
+    public void add( final Task task ) { readyTaskQ.add( task ); }
+
+    @Override
+    public void addAll( final List<? extends Task> tasks ) { readyTaskQ.addAll( tasks ); }
+
+    @Override
+    public Task take() throws InterruptedException { return readyTaskQ.take(); }
+    
+    @Override
+    public Task poll() { return readyTaskQ.poll(); }
+
+    @Override
+    public void retire() {}
+
+    @Override
+    public void discard() { readyTaskQ.clear(); }
+}
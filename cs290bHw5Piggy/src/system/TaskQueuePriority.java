@@ -0,0 +1,209 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A relaxed priority queue: a multi-queue of heaps, each with its own lock.
+ * Task objects are added to a random heap; a Task is taken from the better 
+ * of 2 random heaps. A taken Task is usually, but not always, one of least 
+ * Task.priority(), and no lock is shared by all workers.
+ * @author Peter Cappello
+ */
+final class TaskQueuePriority implements TaskQueue
+{
+    static final private int NUM_HEAPS = Math.max( 4, 2 * Runtime.getRuntime().availableProcessors() );
+    static final private Comparator<Task> COMPARATOR = Comparator.comparingDouble( Task::priority );
+    
+    final private Heap[] heaps = new Heap[ NUM_HEAPS ];
+    final private Semaphore numTasks = new Semaphore( 0 ); // a permit per queued Task.
+    
+    TaskQueuePriority()
+    {
+        for ( int i = 0; i < heaps.length; i++ )
+        {
+            heaps[ i ] = new Heap();
+        }
+    }
+    
+    @Override
+    public void add( final Task task ) 
+    { 
+        final Heap heap = lockRandomHeap();
+        try
+        {
+            heap.add( task );
+        }
+        finally
+        {
+            heap.lock.unlock();
+        }
+        numTasks.release();
+    }
+
+    @Override
+    public void addAll( final List<? extends Task> tasks ) 
+    { 
+        if ( tasks.isEmpty() )
+        {
+            return;
+        }
+        final Heap heap = lockRandomHeap();
+        try
+        {
+            tasks.stream().forEach( task -> heap.add( task ) );
+        }
+        finally
+        {
+            heap.lock.unlock();
+        }
+        numTasks.release( tasks.size() );
+    }
+
+    @Override
+    public Task take() throws InterruptedException 
+    { 
+        numTasks.acquire();
+        return remove();
+    }
+    
+    @Override
+    public Task poll() { return numTasks.tryAcquire() ? remove() : null; }
+
+    @Override
+    public void retire() {}
+    
+    /**
+     * Taken as a worker takes: a concurrent taker may hold a permit.
+     */
+    @Override
+    public void discard() 
+    { 
+        for ( Task task = poll(); task != null; task = poll() ) {}
+    }
+    
+    private Heap lockRandomHeap()
+    {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while ( true )
+        {
+            final Heap heap = heaps[ random.nextInt( heaps.length ) ];
+            if ( heap.lock.tryLock() )
+            {
+                return heap;
+            }
+        }
+    }
+    
+    /**
+     * Remove a Task: the caller holds a permit, so some heap has a Task for it.
+     * The heap is locked, waiting if necessary: it is retried only if 
+     * another worker emptied it first.
+     * @return the Task of lesser priority of the heads of 2 random nonempty heaps.
+     */
+    private Task remove()
+    {
+        while ( true )
+        {
+            final Heap heap = selectHeap();
+            heap.lock.lock();
+            try
+            {
+                final Task task = heap.poll();
+                if ( task != null )
+                {
+                    return task;
+                }
+            }
+            finally
+            {
+                heap.lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * @return the better of 2 random heaps: a nonempty one, of lesser least priority; 
+     * if both are empty, the first nonempty heap, from a random one on; 
+     * if all are empty, as another worker took the last Task, a random heap.
+     */
+    private Heap selectHeap()
+    {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Heap heap1 = heaps[ random.nextInt( heaps.length ) ];
+        final Heap heap2 = heaps[ random.nextInt( heaps.length ) ];
+        if ( heap1.size > 0 && heap2.size > 0 )
+        {
+            return heap1.minPriority <= heap2.minPriority ? heap1 : heap2;
+        }
+        if ( heap1.size > 0 || heap2.size > 0 )
+        {
+            return heap1.size > 0 ? heap1 : heap2;
+        }
+        final int start = random.nextInt( heaps.length );
+        for ( int i = 0; i < heaps.length; i++ )
+        {
+            final Heap heap = heaps[ ( start + i ) % heaps.length ];
+            if ( heap.size > 0 )
+            {
+                return heap;
+            }
+        }
+        return heap1;
+    }
+    
+    /**
+     * A heap, guarded by its lock. 
+     * Its size and least priority are readable without the lock: 
+     * emptiness is decided by its size, as any priority, even Double.MAX_VALUE, is legal.
+     */
+    static final private class Heap
+    {
+        final private ReentrantLock lock = new ReentrantLock();
+        final private PriorityQueue<Task> tasks = new PriorityQueue<>( COMPARATOR );
+        volatile private int size;
+        volatile private double minPriority = Double.POSITIVE_INFINITY; // of an empty heap.
+        
+        private void add( final Task task )
+        {
+            tasks.add( task );
+            minPriority = tasks.peek().priority();
+            size = tasks.size();
+        }
+        
+        private Task poll()
+        {
+            final Task task = tasks.poll();
+            minPriority = tasks.isEmpty() ? Double.POSITIVE_INFINITY : tasks.peek().priority();
+            size = tasks.size();
+            return task;
+        }
+    }
+}
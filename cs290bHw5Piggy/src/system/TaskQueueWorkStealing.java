@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Each worker owns a deque, from its first add or take until it retires. 
+ * A worker pushes the Task objects that it produces onto the front of its deque,
+ * and takes from the front (LIFO: depth-first locality).
+ * An idle worker takes from the injection queue, which holds the Task objects
+ * that were not produced by a worker, or else steals from the back of 
+ * another worker's deque (FIFO: typically the largest subtree).
+ * Other threads, e.g., RMI threads, own no deque: they add to the injection queue.
+ * A worker that finds no Task parks: it waits on a Condition that is 
+ * signalled when a Task is added, if some worker is parked.
+ * @author Peter Cappello
+ */
+final class TaskQueueWorkStealing implements TaskQueue
+{
+    // of every TaskQueueWorkStealing: a worker takes from the queues of every job.
+    static final private ThreadLocal<Boolean> isWorker = ThreadLocal.withInitial( () -> false );
+    
+    final private Queue<Task>           injectionQ = new ConcurrentLinkedQueue<>();
+    final private List<Deque<Task>>         dequeList = new CopyOnWriteArrayList<>();
+    final private ThreadLocal<Deque<Task>> localDeque = new ThreadLocal<>();
+    final private ReentrantLock lock = new ReentrantLock();
+    final private Condition isReady = lock.newCondition();
+    final private AtomicInteger numParked = new AtomicInteger();
+    
+    /**
+     * The calling thread is a worker: it owns a deque of each TaskQueueWorkStealing 
+     * that it adds to or takes from.
+     */
+    static void enlist() { isWorker.set( true ); }
+    
+    @Override
+    public void add( final Task task ) 
+    { 
+        injectionQ.add( task ); 
+        ready( 1 );
+    }
+
+    @Override
+    public void addAll( final List<? extends Task> tasks ) 
+    { 
+        final Deque<Task> deque = deque();
+        if ( deque == null )
+        {
+            injectionQ.addAll( tasks );
+        }
+        else
+        {   // push in reverse order so that the 1st task is taken 1st.
+            for ( int i = tasks.size() - 1; i >= 0; i-- )
+            {
+                deque.addFirst( tasks.get( i ) );
+            }
+        }
+        ready( tasks.size() );
+    }
+
+    @Override
+    public Task take() throws InterruptedException 
+    {
+        while ( true )
+        {
+            final Task task = poll();
+            if ( task != null )
+            {
+                return task;
+            }
+            lock.lock();
+            try
+            {
+                // counted before the check, as an adder adds its Task objects before it reads numParked.
+                numParked.incrementAndGet();
+                if ( isEmpty() )
+                {
+                    isReady.await();
+                }
+            }
+            finally
+            {
+                numParked.decrementAndGet();
+                lock.unlock();
+            }
+        }
+    }
+    
+    @Override
+    public Task poll()
+    {
+        final Deque<Task> deque = deque();
+        Task task = deque == null ? null : deque.pollFirst();
+        if ( task == null )
+        {
+            task = injectionQ.poll();
+        }
+        if ( task == null )
+        {
+            task = steal( deque );
+        }
+        return task;
+    }
+
+    @Override
+    public void retire() 
+    {
+        final Deque<Task> deque = localDeque.get();
+        if ( deque == null )
+        {
+            return;
+        }
+        localDeque.remove();
+        dequeList.remove( deque );
+        int numTasks = 0;
+        for ( Task task = deque.pollLast(); task != null; task = deque.pollLast() )
+        {
+            injectionQ.add( task );
+            numTasks++;
+        }
+        if ( numTasks > 0 )
+        {
+            ready( numTasks );
+        }
+    }
+    
+    @Override
+    public void discard() 
+    {
+        injectionQ.clear();
+        dequeList.stream().forEach( Deque::clear );
+        dequeList.clear();
+    }
+    
+    /**
+     * Wake parked workers, if any, for newly added Task objects.
+     * @param numTasks the number of Task objects added.
+     */
+    private void ready( final int numTasks )
+    {
+        if ( numParked.get() == 0 )
+        {
+            return;
+        }
+        lock.lock();
+        try
+        {
+            // a taker per Task: waking them all would have most find nothing.
+            for ( int i = Math.min( numTasks, numParked.get() ); i > 0; i-- )
+            {
+                isReady.signal();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    private boolean isEmpty() 
+    { 
+        return injectionQ.isEmpty() && dequeList.stream().allMatch( Deque::isEmpty ); 
+    }
+    
+    /**
+     * @return the calling worker's deque, or null if the calling thread is not a worker.
+     */
+    private Deque<Task> deque()
+    {
+        Deque<Task> deque = localDeque.get();
+        if ( deque == null && isWorker.get() )
+        {
+            deque = new ConcurrentLinkedDeque<>();
+            localDeque.set( deque );
+            dequeList.add( deque );
+        }
+        return deque;
+    }
+    
+    /**
+     * Steal the oldest Task of some other worker, starting with a random victim.
+     * @param thief the deque of the stealing worker, or null.
+     * @return the stolen Task, or null if every other deque is empty.
+     */
+    private Task steal( final Deque<Task> thief )
+    {
+        final Object[] deques = dequeList.toArray();
+        if ( deques.length == 0 )
+        {
+            return null;
+        }
+        final int start = ThreadLocalRandom.current().nextInt( deques.length );
+        for ( int i = 0; i < deques.length; i++ )
+        {
+            @SuppressWarnings( "unchecked" )
+            final Deque<Task> victim = (Deque<Task>) deques[ ( start + i ) % deques.length ];
+            if ( victim != thief )
+            {
+                final Task task = victim.pollLast();
+                if ( task != null )
+                {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates the threads that run the Space's WorkerProxy objects.
+ * A WorkerProxy spends nearly all its time blocked: on the ready task queue, 
+ * and on its Computer's reply. A platform thread so blocked still holds 
+ * its stack, and costs a kernel context switch each time it blocks and wakes.
+ * A virtual thread releases its carrier thread when it blocks, 
+ * so many more WorkerProxy objects, i.e., Task objects in flight, are cheap.
+ * Virtual threads need Java 21: they are found reflectively, 
+ * so this compiles, and runs, on earlier Java versions, 
+ * where platform threads are used.
+ * @author Peter Cappello
+ */
+final class WorkerThreadFactory implements ThreadFactory
+{
+    static final private ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+    
+    final private ThreadFactory threadFactory;
+    final private AtomicInteger threadIds = new AtomicInteger();
+    
+    /**
+     * @param isVirtual if true, and virtual threads are available, create virtual threads; 
+     * else, create platform threads.
+     */
+    WorkerThreadFactory( final boolean isVirtual )
+    {
+        if ( isVirtual && VIRTUAL_THREAD_FACTORY == null )
+        {
+            Logger.getLogger( WorkerThreadFactory.class.getCanonicalName() )
+                  .log( Level.WARNING, "Virtual threads are unavailable in Java {0}: using platform threads.", System.getProperty( "java.version" ) );
+        }
+        threadFactory = isVirtual && VIRTUAL_THREAD_FACTORY != null ? VIRTUAL_THREAD_FACTORY : Thread::new;
+    }
+    
+    /**
+     * @return true if and only if this creates virtual threads.
+     */
+    boolean isVirtual() { return threadFactory == VIRTUAL_THREAD_FACTORY; }
+    
+    /**
+     * @return true if and only if this Java version has virtual threads.
+     */
+    static boolean isVirtualAvailable() { return VIRTUAL_THREAD_FACTORY != null; }
+    
+    @Override
+    public Thread newThread( final Runnable runnable )
+    {
+        final Thread thread = threadFactory.newThread( runnable );
+        thread.setName( "WorkerProxy-" + threadIds.getAndIncrement() );
+        return thread;
+    }
+    
+    /**
+     * @return Thread.ofVirtual().factory(), if this Java version has it; else null.
+     */
+    static private ThreadFactory virtualThreadFactory()
+    {
+        try
+        {
+            final Object builder = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+            return (ThreadFactory) Class.forName( "java.lang.Thread$Builder" ).getMethod( "factory" ).invoke( builder );
+        }
+        catch ( ReflectiveOperationException | UnsupportedOperationException exception ) 
+        { 
+            return null; // before Java 21, or a preview feature that is not enabled.
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A concurrent map from long keys to values, with no boxing of keys.
+ * The map is split into stripes; each stripe is an open-addressing, 
+ * linear-probing table, whose writes are guarded by the stripe's lock. 
+ * Reads are optimistic: they take no lock unless they race with a write.
+ * @author Peter Cappello
+ * @param <V> the value type.
+ */
+public final class ConcurrentLongMap<V>
+{
+    static final private int STRIPE_BITS = 6;
+    static final private int NUM_STRIPES = 1 << STRIPE_BITS;
+    static final private int INITIAL_STRIPE_CAPACITY = 16; // a power of 2.
+    static final private long EMPTY = Long.MIN_VALUE;
+    
+    final private Stripe<V>[] stripes;
+    
+    @SuppressWarnings( "unchecked" )
+    public ConcurrentLongMap()
+    {
+        stripes = new Stripe[ NUM_STRIPES ];
+        for ( int i = 0; i < NUM_STRIPES; i++ )
+        {
+            stripes[ i ] = new Stripe<>();
+        }
+    }
+    
+    /**
+     *
+     * @param key not Long.MIN_VALUE.
+     * @return the value associated with key, or null, if there is none.
+     */
+    public V get( final long key )
+    {
+        final long hash = hash( key );
+        return stripes[ (int) ( hash >>> ( Long.SIZE - STRIPE_BITS ) ) ].get( key, hash );
+    }
+    
+    /**
+     *
+     * @param key not Long.MIN_VALUE.
+     * @param value not null.
+     * @return the value previously associated with key, or null, if there was none.
+     */
+    public V put( final long key, final V value )
+    {
+        assert key != EMPTY && value != null;
+        final long hash = hash( key );
+        return stripes[ (int) ( hash >>> ( Long.SIZE - STRIPE_BITS ) ) ].put( key, hash, value );
+    }
+    
+    /**
+     *
+     * @param key
+     * @return the value previously associated with key, or null, if there was none.
+     */
+    public V remove( final long key )
+    {
+        final long hash = hash( key );
+        return stripes[ (int) ( hash >>> ( Long.SIZE - STRIPE_BITS ) ) ].remove( key, hash );
+    }
+    
+    /**
+     *
+     * @return the number of key-value pairs; not atomic with respect to concurrent writes.
+     */
+    public int size()
+    {
+        int size = 0;
+        for ( Stripe<V> stripe : stripes )
+        {
+            size += stripe.size();
+        }
+        return size;
+    }
+    
+    /**
+     * Remove all key-value pairs; not atomic with respect to concurrent writes.
+     */
+    public void clear()
+    {
+        for ( Stripe<V> stripe : stripes )
+        {
+            stripe.clear();
+        }
+    }
+    
+    /**
+     * Fibonacci hashing: the high-order bits of the product depend on all key bits,
+     * so ids that differ only in their prefix, or only in their counter, spread well.
+     */
+    static private long hash( final long key ) { return key * 0x9E3779B97F4A7C15L; }
+    
+    static final private class Stripe<V>
+    {
+        final private StampedLock lock = new StampedLock();
+              private long[]   keys   = emptyKeys( INITIAL_STRIPE_CAPACITY );
+              private Object[] values = new Object[ INITIAL_STRIPE_CAPACITY ];
+              private int size;
+        
+        @SuppressWarnings( "unchecked" )
+        private V get( final long key, final long hash )
+        {
+            final long stamp = lock.tryOptimisticRead();
+            final long[]   keys   = this.keys;
+            final Object[] values = this.values;
+            if ( keys.length == values.length )
+            {
+                final Object value = find( keys, values, key, hash );
+                if ( lock.validate( stamp ) )
+                {
+                    return (V) value;
+                }
+            }
+            final long readStamp = lock.readLock();
+            try 
+            { 
+                return (V) find( this.keys, this.values, key, hash ); 
+            }
+            finally 
+            { 
+                lock.unlockRead( readStamp ); 
+            }
+        }
+        
+        @SuppressWarnings( "unchecked" )
+        private V put( final long key, final long hash, final V value )
+        {
+            final long stamp = lock.writeLock();
+            try 
+            {
+                if ( 2 * ( size + 1 ) > keys.length )
+                {
+                    resize();
+                }
+                final int mask = keys.length - 1;
+                int slot = slot( hash, mask );
+                for ( ; keys[ slot ] != EMPTY; slot = ( slot + 1 ) & mask )
+                {
+                    if ( keys[ slot ] == key )
+                    {
+                        final Object previous = values[ slot ];
+                        values[ slot ] = value;
+                        return (V) previous;
+                    }
+                }
+                values[ slot ] = value;
+                keys[ slot ] = key;
+                size++;
+                return null;
+            }
+            finally 
+            { 
+                lock.unlockWrite( stamp ); 
+            }
+        }
+        
+        /**
+         * Linear probing with backward-shift deletion: no tombstones.
+         */
+        @SuppressWarnings( "unchecked" )
+        private V remove( final long key, final long hash )
+        {
+            final long stamp = lock.writeLock();
+            try 
+            {
+                final int mask = keys.length - 1;
+                int slot = slot( hash, mask );
+                for ( ; keys[ slot ] != key; slot = ( slot + 1 ) & mask )
+                {
+                    if ( keys[ slot ] == EMPTY )
+                    {
+                        return null;
+                    }
+                }
+                final Object previous = values[ slot ];
+                for ( int next = ( slot + 1 ) & mask; keys[ next ] != EMPTY; next = ( next + 1 ) & mask )
+                {
+                    final int home = slot( hash( keys[ next ] ), mask );
+                    // move next to slot, if next's home is not cyclically in ( slot, next ].
+                    if ( ( ( next - home ) & mask ) >= ( ( next - slot ) & mask ) )
+                    {
+                        keys[ slot ] = keys[ next ];
+                        values[ slot ] = values[ next ];
+                        slot = next;
+                    }
+                }
+                keys[ slot ] = EMPTY;
+                values[ slot ] = null;
+                size--;
+                return (V) previous;
+            }
+            finally 
+            { 
+                lock.unlockWrite( stamp ); 
+            }
+        }
+        
+        private int size()
+        {
+            final long stamp = lock.readLock();
+            try 
+            { 
+                return size; 
+            }
+            finally 
+            { 
+                lock.unlockRead( stamp ); 
+            }
+        }
+        
+        private void clear()
+        {
+            final long stamp = lock.writeLock();
+            try 
+            { 
+                keys = emptyKeys( INITIAL_STRIPE_CAPACITY );
+                values = new Object[ INITIAL_STRIPE_CAPACITY ];
+                size = 0;
+            }
+            finally 
+            { 
+                lock.unlockWrite( stamp ); 
+            }
+        }
+        
+        /**
+         * Double the capacity. Caller holds the write lock.
+         * New arrays are filled before they are published, 
+         * so an optimistic reader sees either the old or the new table.
+         */
+        private void resize()
+        {
+            final long[]   newKeys   = emptyKeys( 2 * keys.length );
+            final Object[] newValues = new Object[ 2 * keys.length ];
+            final int mask = newKeys.length - 1;
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( keys[ i ] != EMPTY )
+                {
+                    int slot = slot( hash( keys[ i ] ), mask );
+                    while ( newKeys[ slot ] != EMPTY )
+                    {
+                        slot = ( slot + 1 ) & mask;
+                    }
+                    newKeys[ slot ] = keys[ i ];
+                    newValues[ slot ] = values[ i ];
+                }
+            }
+            values = newValues;
+            keys = newKeys;
+        }
+        
+        /**
+         * Probe for key. Reads that race with a write may see a torn table:
+         * the probe is bounded by the capacity; the caller validates the result.
+         */
+        static private Object find( final long[] keys, final Object[] values, final long key, final long hash )
+        {
+            final int mask = keys.length - 1;
+            for ( int i = 0, slot = slot( hash, mask ); i < keys.length; i++, slot = ( slot + 1 ) & mask )
+            {
+                final long slotKey = keys[ slot ];
+                if ( slotKey == key )
+                {
+                    return values[ slot ];
+                }
+                if ( slotKey == EMPTY )
+                {
+                    return null;
+                }
+            }
+            return null;
+        }
+        
+        /**
+         * The stripe is selected by the high-order bits of hash; the slot, by the bits below them.
+         */
+        static private int slot( final long hash, final int mask ) { return (int) ( hash >>> 32 ) & mask; }
+        
+        static private long[] emptyKeys( final int capacity )
+        {
+            final long[] keys = new long[ capacity ];
+            Arrays.fill( keys, EMPTY );
+            return keys;
+        }
+    }
+}
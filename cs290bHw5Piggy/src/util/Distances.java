@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The distances between the cities of a Euclidean graph, and, for each city, 
+ * a candidate list: its nearest neighbors, nearest first.
+ * Ties are broken in favor of the smaller city.
+ * Candidate lists are computed on first use. 
+ * Only the cities are serialized: the receiver recomputes the rest.
+ * @author Peter Cappello
+ */
+abstract public class Distances implements Serializable
+{
+    static final public int NUM_CANDIDATES = 8;
+    
+    final protected double[][] cities;
+    final private transient AtomicReferenceArray<int[]> candidates;
+    
+    protected Distances( final double[][] cities )
+    {
+        this.cities = cities;
+        candidates = new AtomicReferenceArray<>( cities.length );
+    }
+    
+    public int numCities() { return cities.length; }
+    
+    /**
+     * @param city1
+     * @param city2
+     * @return the distance between city1 and city2.
+     */
+    abstract public double distance( final int city1, final int city2 );
+    
+    /**
+     * @return the length of each candidate list.
+     */
+    public int numCandidates() { return Math.min( NUM_CANDIDATES, cities.length - 1 ); }
+    
+    /**
+     * @param city
+     * @param rank in [ 0, numCandidates() ).
+     * @return the rank-th nearest neighbor of city: 0 is the nearest.
+     */
+    public int candidate( final int city, final int rank )
+    {
+        int[] cityCandidates = candidates.get( city );
+        if ( cityCandidates == null )
+        {   // a racing thread computes the same list.
+            cityCandidates = makeCandidates( city );
+            candidates.lazySet( city, cityCandidates );
+        }
+        return cityCandidates[ rank ];
+    }
+    
+    /**
+     * For a scan of many cities: unlike distance, it stores nothing.
+     * @param city1
+     * @param city2
+     * @return the distance between city1 and city2, computed from their coordinates.
+     */
+    public double computeDistance( final int city1, final int city2 )
+    {
+        return EuclideanGraph.distance( cities[ city1 ], cities[ city2 ] );
+    }
+    
+    /**
+     * Insert each other city into a sorted list of the nearest, 
+     * if it is strictly nearer than the farthest of them.
+     */
+    private int[] makeCandidates( final int city )
+    {
+        final int numCandidates = numCandidates();
+        final int[] cityCandidates = new int[ numCandidates ];
+        final double[] candidateDistances = new double[ numCandidates ];
+        int size = 0;
+        for ( int neighbor = 0; neighbor < cities.length; neighbor++ )
+        {
+            if ( neighbor == city )
+            {
+                continue;
+            }
+            final double neighborDistance = computeDistance( city, neighbor );
+            if ( size == numCandidates && neighborDistance >= candidateDistances[ size - 1 ] )
+            {
+                continue;
+            }
+            int i = size == numCandidates ? size - 1 : size++;
+            for ( ; i > 0 && neighborDistance < candidateDistances[ i - 1 ]; i-- )
+            {
+                cityCandidates[ i ] = cityCandidates[ i - 1 ];
+                candidateDistances[ i ] = candidateDistances[ i - 1 ];
+            }
+            cityCandidates[ i ] = neighbor;
+            candidateDistances[ i ] = neighborDistance;
+        }
+        return cityCandidates;
+    }
+}
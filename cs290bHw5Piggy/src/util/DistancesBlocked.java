@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * For graphs too large for a full distance matrix: the matrix is split into 
+ * square blocks, each computed on first use. A branch-and-bound search 
+ * touches mostly the blocks of nearby cities.
+ * @author Peter Cappello
+ */
+public final class DistancesBlocked extends Distances
+{
+    static final private int BLOCK_BITS = 6;
+    static final private int BLOCK_SIZE = 1 << BLOCK_BITS;
+    static final private int BLOCK_MASK = BLOCK_SIZE - 1;
+    
+    final private int numBlocks; // in a row of blocks.
+    final private transient AtomicReferenceArray<double[]> blocks;
+    
+    public DistancesBlocked( final double[][] cities )
+    {
+        super( cities );
+        numBlocks = ( cities.length + BLOCK_MASK ) >>> BLOCK_BITS;
+        blocks = new AtomicReferenceArray<>( numBlocks * numBlocks );
+    }
+    
+    @Override
+    public double distance( final int city1, final int city2 ) 
+    { 
+        final int blockRow = city1 >>> BLOCK_BITS;
+        final int blockCol = city2 >>> BLOCK_BITS;
+        double[] block = blocks.get( blockRow * numBlocks + blockCol );
+        if ( block == null )
+        {   // a racing thread computes the same block.
+            block = makeBlock( blockRow, blockCol );
+            blocks.lazySet( blockRow * numBlocks + blockCol, block );
+        }
+        return block[ ( city1 & BLOCK_MASK ) << BLOCK_BITS | city2 & BLOCK_MASK ];
+    }
+    
+    private double[] makeBlock( final int blockRow, final int blockCol )
+    {
+        final double[] block = new double[ BLOCK_SIZE * BLOCK_SIZE ];
+        final int city1Limit = Math.min( cities.length, ( blockRow + 1 ) << BLOCK_BITS );
+        final int city2Limit = Math.min( cities.length, ( blockCol + 1 ) << BLOCK_BITS );
+        for ( int city1 = blockRow << BLOCK_BITS; city1 < city1Limit; city1++ )
+        {
+            for ( int city2 = blockCol << BLOCK_BITS; city2 < city2Limit; city2++ )
+            {
+                block[ ( city1 & BLOCK_MASK ) << BLOCK_BITS | city2 & BLOCK_MASK ] = computeDistance( city1, city2 );
+            }
+        }
+        return block;
+    }
+    
+    private Object readResolve() { return new DistancesBlocked( cities ); }
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package util;
+
+/**
+ * All distances, computed once, in a flat, row-major array.
+ * @author Peter Cappello
+ */
+public final class DistancesMatrix extends Distances
+{
+    final private transient double[] matrix;
+    
+    public DistancesMatrix( final double[][] cities )
+    {
+        super( cities );
+        final int numCities = cities.length;
+        matrix = new double[ numCities * numCities ];
+        for ( int city1 = 0; city1 < numCities; city1++ )
+        {
+            for ( int city2 = 0; city2 < city1; city2++ )
+            {
+                final double distance = computeDistance( city1, city2 );
+                matrix[ city1 * numCities + city2 ] = distance;
+                matrix[ city2 * numCities + city1 ] = distance;
+            }
+        }
+    }
+    
+    @Override
+    public double distance( final int city1, final int city2 ) { return matrix[ city1 * cities.length + city2 ]; }
+    
+    private Object readResolve() { return new DistancesMatrix( cities ); }
+}
@@ -24,7 +24,6 @@
 package util;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.logging.Level;
@@ -39,6 +38,7 @@ public final class EuclideanGraph
 {
     static final private int X = 0;
     static final private int Y = 1;
+    static final private int MAX_MATRIX_CITIES = 2048; // a full matrix of 32 MB.
     
     /**
      *
@@ -58,33 +58,62 @@ public final class EuclideanGraph
         return vertices;
     }
     
-    public static List<Integer> greedyTour( final double[][] cities )
+    /**
+     * The distances of a graph: a full matrix, if it is small enough; 
+     * otherwise, blocks computed on first use.
+     * @param cities
+     * @return the distances between cities.
+     */
+    public static Distances distances( final double[][] cities )
     {
-        List<Integer> tour = new LinkedList<>();
-        List<Integer> unvisitedCities = new ArrayList<>();
-        for ( int unvisitedCity = 1; unvisitedCity < cities.length; unvisitedCity++ )
-        {
-            unvisitedCities.add( unvisitedCity );
-        }
-        tour.add( 0 );        
-        for ( int nearestCity = -1, baseCity = 0; ! unvisitedCities.isEmpty(); baseCity = nearestCity )
+        return cities.length <= MAX_MATRIX_CITIES ? new DistancesMatrix( cities ) : new DistancesBlocked( cities );
+    }
+    
+    public static List<Integer> greedyTour( final double[][] cities ) { return greedyTour( distances( cities ) ); }
+    
+    /**
+     * From each city, go to the nearest unvisited city: the first unvisited 
+     * city in its candidate list, if there is one, otherwise the nearest of all.
+     * @param distances
+     * @return the tour.
+     */
+    public static List<Integer> greedyTour( final Distances distances )
+    {
+        final int numCities = distances.numCities();
+        final List<Integer> tour = new ArrayList<>( numCities );
+        final boolean[] isVisited = new boolean[ numCities ];
+        tour.add( 0 );
+        isVisited[ 0 ] = true;
+        for ( int nearestCity = -1, baseCity = 0; tour.size() < numCities; baseCity = nearestCity )
         {
-            // select unvisited city that is nearest to baseCity
-            double nearestCityDistance = Double.MAX_VALUE;
-            for ( Integer nextCity : unvisitedCities )
+            nearestCity = -1;
+            for ( int rank = 0; rank < distances.numCandidates() && nearestCity < 0; rank++ )
             {
-                double nextCityDistance = distance( cities[ baseCity ], cities[ nextCity ] );
-                if ( nextCityDistance < nearestCityDistance )
+                final int candidate = distances.candidate( baseCity, rank );
+                nearestCity = isVisited[ candidate ] ? -1 : candidate;
+            }
+            if ( nearestCity < 0 )
+            {   // select unvisited city that is nearest to baseCity
+                double nearestCityDistance = Double.MAX_VALUE;
+                for ( int nextCity = 1; nextCity < numCities; nextCity++ )
                 {
-                   nearestCity = nextCity;
-                   nearestCityDistance = nextCityDistance;
+                    if ( isVisited[ nextCity ] )
+                    {
+                        continue;
+                    }
+                    final double nextCityDistance = distances.computeDistance( baseCity, nextCity );
+                    if ( nextCityDistance < nearestCityDistance )
+                    {
+                       nearestCity = nextCity;
+                       nearestCityDistance = nextCityDistance;
+                    }
                 }
             }
             tour.add( nearestCity );
-            unvisitedCities.remove( new Integer( nearestCity ) );
+            isVisited[ nearestCity ] = true;
         }
         Logger.getLogger( EuclideanGraph.class.getCanonicalName() )
-              .log(Level.INFO, "\n\tTour: {0}\n\tCost: {1}", new Object[]{ tour, tourDistance( cities, tour ) } );
+              .log(Level.INFO, "\n\tTour: {0}\n\tCost: {1}", new Object[]{ tour, tourDistance( distances, tour ) } );
         return tour;
     }
     
@@ -98,6 +127,16 @@ public final class EuclideanGraph
         return cost;
     }
     
+    public static double tourDistance( final Distances distances, final List<Integer> tour )
+    {
+        double cost = distances.distance( tour.get( tour.size() - 1 ), 0 );
+        for ( int city = 0; city < tour.size() - 1; city ++ )
+        {
+            cost += distances.distance( tour.get( city ), tour.get( city + 1 ) );
+        }
+        return cost;
+    }
+    
     public static double distance( final double[] city1, final double[] city2 )
     {
         final double deltaX = city1[ 0 ] - city2[ 0 ];
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import applications.euclideantsp.LowerBound.Search;
+import applications.euclideantsp.LowerBoundNearestNeighbors;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import util.Distances;
+import util.EuclideanGraph;
+import static util.EuclideanGraph.generateRandomGraph;
+import static util.EuclideanGraph.greedyTour;
+import static util.EuclideanGraph.tourDistance;
+
+/**
+ * Times the in-place search of LowerBoundNearestNeighbors: a depth-first 
+ * branch-and-bound on a random graph, for at most a given number of nodes. 
+ * With assertions enabled, it checks that the lower bound of each complete 
+ * tour is the tour's cost.
+ * @author Peter Cappello
+ */
+final class LowerBoundNearestNeighborsBenchmark 
+{
+    static private long nodes;
+    
+    /**
+     * @param args [0] the number of cities (default: 22), 
+     * [1] the maximum number of nodes per search (default: 10000000), 
+     * [2] the number of runs (default: 3).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final int numCities = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 22;
+        final long maxNodes = args.length > 1 ? Long.parseLong( args[ 1 ] ) : 10000000L;
+        final int numRuns   = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 3;
+        final Distances distances = EuclideanGraph.distances( generateRandomGraph( numCities, 0 ) );
+        final double greedyTourCost = tourDistance( distances, greedyTour( distances ) );
+        final LowerBoundNearestNeighbors lowerBound = new LowerBoundNearestNeighbors( distances );
+        final int[] tour = new int[ numCities ];
+        final boolean[] isVisited = new boolean[ numCities ];
+        isVisited[ 0 ] = true;
+        for ( int run = 0; run < numRuns; run++ )
+        {
+            final double[] upperBound = { greedyTourCost };
+            nodes = 0;
+            final long startTime = System.nanoTime();
+            search( distances, lowerBound.search( Collections.singletonList( 0 ) ), tour, 1, isVisited, upperBound, maxNodes );
+            final long elapsedTime = System.nanoTime() - startTime;
+            System.out.printf( "%d cities: %d nodes in %d ms: %.0f nodes/sec. Best tour: %f%n",
+                    numCities, nodes, elapsedTime / 1000000, nodes * 1e9 / elapsedTime, upperBound[ 0 ] );
+        }
+    }
+    
+    static private void search( final Distances distances, final Search search, final int[] tour, final int size, 
+            final boolean[] isVisited, final double[] upperBound, final long maxNodes )
+    {
+        for ( int city = 1; city < tour.length && nodes < maxNodes; city++ )
+        {
+            if ( isVisited[ city ] )
+            {
+                continue;
+            }
+            nodes++;
+            search.make( tour[ size - 1 ], city );
+            assert size < tour.length - 1 || Math.abs( search.cost() - tourCost( distances, tour, city ) ) < 1E-9;
+            if ( search.cost() < upperBound[ 0 ] )
+            {
+                if ( size == tour.length - 1 )
+                {
+                    upperBound[ 0 ] = search.cost();
+                }
+                else
+                {
+                    tour[ size ] = city;
+                    isVisited[ city ] = true;
+                    search( distances, search, tour, size + 1, isVisited, upperBound, maxNodes );
+                    isVisited[ city ] = false;
+                }
+            }
+            search.unmake();
+        }
+    }
+    
+    /**
+     * @return the cost of the tour whose last city is lastCity.
+     */
+    static private double tourCost( final Distances distances, final int[] tour, final int lastCity )
+    {
+        final List<Integer> completeTour = Arrays.stream( tour, 0, tour.length - 1 ).boxed().collect( Collectors.toList() );
+        completeTour.add( lastCity );
+        return tourDistance( distances, completeTour );
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import applications.euclideantsp.LowerBound;
+import applications.euclideantsp.LowerBound.Search;
+import applications.euclideantsp.LowerBoundNearestNeighbors;
+import applications.euclideantsp.LowerBoundOneTree;
+import applications.euclideantsp.LowerBoundPartialTour;
+import java.util.Collections;
+import java.util.List;
+import util.Distances;
+import util.EuclideanGraph;
+import static util.EuclideanGraph.generateRandomGraph;
+import static util.EuclideanGraph.greedyTour;
+import static util.EuclideanGraph.tourDistance;
+
+/**
+ * Compares the lower bounds by the number of nodes that a depth-first 
+ * search expands, and its time, to find a shortest tour of random graphs.
+ * @author Peter Cappello
+ */
+final class LowerBoundOneTreeBenchmark 
+{
+    /**
+     * @param args [0] the maximum number of cities (default: 18), 
+     * [1] the maximum number of nodes per search (default: 10000000).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final int maxNumCities = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 18;
+        final long maxNodes    = args.length > 1 ? Long.parseLong( args[ 1 ] ) : 10000000L;
+        final List<Integer> partialTour = Collections.singletonList( 0 );
+        for ( int numCities = 10; numCities <= maxNumCities; numCities += 2 )
+        {
+            final Distances distances = EuclideanGraph.distances( generateRandomGraph( numCities, 0 ) );
+            final double greedyTourCost = tourDistance( distances, greedyTour( distances ) );
+            final LowerBound[] lowerBounds = 
+            {
+                new LowerBoundNearestNeighbors( distances ),
+                new LowerBoundPartialTour( distances, partialTour ),
+                new LowerBoundOneTree( distances )
+            };
+            for ( LowerBound lowerBound : lowerBounds )
+            {
+                final int[] tour = new int[ numCities ];
+                final boolean[] isVisited = new boolean[ numCities ];
+                isVisited[ 0 ] = true;
+                final double[] upperBound = { greedyTourCost };
+                final long[] nodes = { 0 };
+                final long startTime = System.nanoTime();
+                search( lowerBound.search( partialTour ), tour, 1, isVisited, upperBound, nodes, maxNodes );
+                final long elapsedTime = System.nanoTime() - startTime;
+                System.out.printf( "%d cities %-26s root: %f %10d nodes in %6d ms. Best tour: %f%n",
+                        numCities, lowerBound.getClass().getSimpleName(), lowerBound.cost(), 
+                        nodes[ 0 ], elapsedTime / 1000000, upperBound[ 0 ] );
+            }
+        }
+    }
+    
+    /**
+     * @param nodes the number of nodes expanded: incremented.
+     */
+    static private void search( final Search search, final int[] tour, final int size, 
+            final boolean[] isVisited, final double[] upperBound, final long[] nodes, final long maxNodes )
+    {
+        for ( int city = 1; city < tour.length && nodes[ 0 ] < maxNodes; city++ )
+        {
+            if ( isVisited[ city ] )
+            {
+                continue;
+            }
+            nodes[ 0 ]++;
+            search.make( tour[ size - 1 ], city );
+            if ( search.cost() < upperBound[ 0 ] )
+            {
+                if ( size == tour.length - 1 )
+                {
+                    upperBound[ 0 ] = search.cost();
+                }
+                else
+                {
+                    tour[ size ] = city;
+                    isVisited[ city ] = true;
+                    search( search, tour, size + 1, isVisited, upperBound, nodes, maxNodes );
+                    isVisited[ city ] = false;
+                }
+            }
+            search.unmake();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import applications.fibonacci.TaskFibonacci;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares Task ids made by UUID.randomUUID, as they were, with Task ids 
+ * made as a ComputerImpl makes them: its id followed by a local counter. 
+ * It reports the time to make an id, and the serialized size of 
+ * an id pair (a Task's id and composeId) and of a TaskFibonacci.
+ * @author Peter Cappello
+ */
+final class TaskIdBenchmark 
+{
+    static final private long TASK_ID_PREFIX = 1L << 40; // the ids of Computer 1.
+    
+    /**
+     * @param args [0] the number of ids made per run (default: 2000000), 
+     * [1] the number of runs (default: 3).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final int numIds  = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 2000000;
+        final int numRuns = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 3;
+        final AtomicLong taskIds = new AtomicLong();
+        long sink = 0;
+        for ( int run = 0; run < numRuns; run++ )
+        {
+            long startTime = System.nanoTime();
+            for ( int i = 0; i < numIds; i++ )
+            {
+                sink += UUID.randomUUID().getLeastSignificantBits();
+            }
+            final double uuidTime = (double) ( System.nanoTime() - startTime ) / numIds;
+            
+            startTime = System.nanoTime();
+            for ( int i = 0; i < numIds; i++ )
+            {
+                sink += TASK_ID_PREFIX | taskIds.getAndIncrement();
+            }
+            final double counterTime = (double) ( System.nanoTime() - startTime ) / numIds;
+            System.out.printf( "UUID.randomUUID: %6.1f ns/id. Computer id + counter: %6.1f ns/id.%n", uuidTime, counterTime );
+        }
+        System.out.printf( "id + composeId serialized: as UUID objects %d bytes, as longs %d bytes.%n", 
+                size( UUID.randomUUID(), UUID.randomUUID() ), size( TASK_ID_PREFIX, TASK_ID_PREFIX + 1 ) );
+        
+        final TaskFibonacci task = new TaskFibonacci( 20 );
+        task.id( TASK_ID_PREFIX | taskIds.getAndIncrement() );
+        task.composeId( TASK_ID_PREFIX | taskIds.getAndIncrement() );
+        System.out.printf( "TaskFibonacci serialized: %d bytes. (%d)%n", size( task ), sink & 1 );
+    }
+    
+    static private int size( final Object... objects ) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+        {
+            for ( Object object : objects )
+            {
+                if ( object instanceof Long )
+                {
+                    out.writeLong( (Long) object );
+                }
+                else
+                {
+                    out.writeObject( object );
+                }
+            }
+        }
+        return bytes.size();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Compares the throughput of the ready task queues, alone and wrapped, 
+ * as the Space uses them, in a TaskQueueFairShare of 1 job; 
+ * and the CPU time that their idle workers consume.
+ * Workers expand a binary tree of Task objects, as WorkerProxy objects do: 
+ * each takes a Task and adds its 2 children, until the leaves are reached.
+ * Then the workers are idle for IDLE_TIME: a parked worker consumes no CPU time.
+ * @author Peter Cappello
+ */
+final class TaskQueueBenchmark 
+{
+    static final private long IDLE_TIME = 1000; // ms.
+    
+    /**
+     * @param args [0] the number of workers (default: 8), 
+     * [1] the depth of the tree (default: 18), 
+     * [2] the number of times each queue is measured (default: 3).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final int numWorkers = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 8;
+        final int depth      = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 18;
+        final int numRuns    = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 3;
+        final String[] names = { "TaskQueueFifo", "TaskQueueWorkStealing", "TaskQueuePriority" };
+        final Supplier<TaskQueue>[] newTaskQueues = newTaskQueues();
+        System.out.printf( "%d workers, %d tasks per run, %d processors.%n", 
+                numWorkers, ( 1 << ( depth + 1 ) ) - 1, Runtime.getRuntime().availableProcessors() );
+        for ( int i = 0; i < names.length; i++ )
+        {
+            final Supplier<TaskQueue> newTaskQueue = newTaskQueues[ i ];
+            for ( int run = 0; run < numRuns; run++ )
+            {
+                measure( names[ i ], newTaskQueue.get(), numWorkers, depth );
+            }
+            for ( int run = 0; run < numRuns; run++ )
+            {
+                final TaskQueueFairShare fairShare = new TaskQueueFairShare( newTaskQueue );
+                fairShare.addJob( 0, 1 );
+                measure( "FairShare(" + names[ i ] + ")", fairShare, numWorkers, depth );
+            }
+        }
+    }
+    
+    @SuppressWarnings( "unchecked" )
+    static private Supplier<TaskQueue>[] newTaskQueues()
+    {
+        return new Supplier[] { TaskQueueFifo::new, TaskQueueWorkStealing::new, TaskQueuePriority::new };
+    }
+    
+    static private void measure( final String name, final TaskQueue taskQueue, final int numWorkers, final int depth ) 
+            throws InterruptedException
+    {
+        final long numTasks = ( 1L << ( depth + 1 ) ) - 1;
+        final AtomicLong numTaken = new AtomicLong();
+        final Thread[] workers = new Thread[ numWorkers ];
+        for ( int i = 0; i < numWorkers; i++ )
+        {
+            workers[ i ] = new Thread( () -> 
+            {
+                TaskQueueWorkStealing.enlist();
+                try
+                {
+                    while ( true )
+                    {
+                        final Task task = taskQueue.take();
+                        if ( task.depth() < depth )
+                        {
+                            taskQueue.addAll( Arrays.asList( new Node( task.depth() + 1 ), new Node( task.depth() + 1 ) ) );
+                        }
+                        numTaken.incrementAndGet();
+                    }
+                }
+                catch ( InterruptedException ignore ) {}
+            } );
+            workers[ i ].start();
+        }
+        final long startTime = System.nanoTime();
+        taskQueue.add( new Node( 0 ) );
+        while ( numTaken.get() < numTasks )
+        {
+            Thread.sleep( 1 );
+        }
+        final long elapsedTime = System.nanoTime() - startTime;
+        
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final long idleStartTime = cpuTime( threadMXBean, workers );
+        Thread.sleep( IDLE_TIME );
+        final long idleCpuTime = cpuTime( threadMXBean, workers ) - idleStartTime;
+        for ( Thread worker : workers )
+        {
+            worker.interrupt();
+            worker.join();
+        }
+        System.out.printf( "%-34s %6d ms. %10.0f tasks/s. Idle workers: %5d ms CPU time in %d ms.%n", 
+                name, elapsedTime / 1000000, numTasks * 1e9 / elapsedTime, idleCpuTime / 1000000, IDLE_TIME );
+    }
+    
+    static private long cpuTime( final ThreadMXBean threadMXBean, final Thread[] threads )
+    {
+        long cpuTime = 0;
+        for ( Thread thread : threads )
+        {
+            cpuTime += Math.max( 0, threadMXBean.getThreadCpuTime( thread.getId() ) );
+        }
+        return cpuTime;
+    }
+    
+    /**
+     * A node of the tree: its depth is its only state.
+     */
+    static final private class Node extends Task
+    {
+        private Node( final int depth ) { depth( depth ); }
+        
+        @Override
+        public Return call() { return null; }
+    }
+}
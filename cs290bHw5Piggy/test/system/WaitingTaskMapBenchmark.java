@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import util.ConcurrentLongMap;
+
+/**
+ * Compares, under contention, the maps that can hold a job's waiting 
+ * TaskCompose objects: util.ConcurrentLongMap, a striped table of 
+ * primitive long keys, and ConcurrentHashMap, which boxes its keys. 
+ * Each thread acts as the Space does for the Task objects of 1 Computer: 
+ * it puts a TaskCompose at a fresh id (the Computer's id followed by 
+ * a counter), gets it once per input (2, as in Fibonacci), and removes it 
+ * when complete. Each thread keeps a window of live TaskCompose objects. 
+ * It reports the time per put-get-get-remove, and the bytes allocated per 
+ * put-get-get-remove.
+ * @author Peter Cappello
+ */
+final class WaitingTaskMapBenchmark 
+{
+    static final private Object COMPOSE = new Object();
+    static final private int WINDOW = 1024; // live TaskCompose objects per thread.
+    
+    /**
+     * @param args [0] the numbers of threads, comma separated (default: 1,2,4,8), 
+     * [1] the number of put-get-get-remove per thread per run (default: 2000000), 
+     * [2] the number of runs (default: 5).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final String[] threadCounts = ( args.length > 0 ? args[ 0 ] : "1,2,4,8" ).split( "," );
+        final int numOps  = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 2000000;
+        final int numRuns = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 5;
+        System.out.printf( "%d processors; %d put-get-get-remove per thread.%n", 
+                Runtime.getRuntime().availableProcessors(), numOps );
+        for ( String threadCount : threadCounts )
+        {
+            final int numThreads = Integer.parseInt( threadCount );
+            for ( int run = 0; run < numRuns; run++ )
+            {
+                final ConcurrentLongMap<Object> longMap = new ConcurrentLongMap<>();
+                final Result longResult = run( numThreads, numOps, thread -> 
+                {
+                    long sink = 0;
+                    final long prefix = ( thread + 1L ) << 40;
+                    for ( long i = 0; i < numOps; i++ )
+                    {
+                        longMap.put( prefix | i, COMPOSE );
+                        if ( i >= WINDOW )
+                        {
+                            final long id = prefix | ( i - WINDOW );
+                            sink += longMap.get( id ) == COMPOSE ? 1 : 0;
+                            sink += longMap.get( id ) == COMPOSE ? 1 : 0;
+                            longMap.remove( id );
+                        }
+                    }
+                    return sink;
+                } );
+                
+                final Map<Long, Object> hashMap = new ConcurrentHashMap<>();
+                final Result hashResult = run( numThreads, numOps, thread -> 
+                {
+                    long sink = 0;
+                    final long prefix = ( thread + 1L ) << 40;
+                    for ( long i = 0; i < numOps; i++ )
+                    {
+                        hashMap.put( prefix | i, COMPOSE );
+                        if ( i >= WINDOW )
+                        {
+                            final long id = prefix | ( i - WINDOW );
+                            sink += hashMap.get( id ) == COMPOSE ? 1 : 0;
+                            sink += hashMap.get( id ) == COMPOSE ? 1 : 0;
+                            hashMap.remove( id );
+                        }
+                    }
+                    return sink;
+                } );
+                System.out.printf( "%d threads: ConcurrentLongMap %6.1f ns/op %5.1f B/op; ConcurrentHashMap %6.1f ns/op %5.1f B/op. (%d)%n", 
+                        numThreads, longResult.time, longResult.bytes, hashResult.time, hashResult.bytes, 
+                        ( longResult.sink + hashResult.sink ) & 1 );
+            }
+        }
+    }
+    
+    /**
+     * Run a workload on threads that start together.
+     * @return the elapsed time per operation per thread, in ns., and the bytes allocated per operation.
+     */
+    static private Result run( final int numThreads, final int numOps, final Workload workload ) throws Exception
+    {
+        final CyclicBarrier start = new CyclicBarrier( numThreads + 1 );
+        final long[] sinks = new long[ numThreads ];
+        final long[] bytes = new long[ numThreads ];
+        final Thread[] threads = new Thread[ numThreads ];
+        for ( int i = 0; i < numThreads; i++ )
+        {
+            final int thread = i;
+            threads[ i ] = new Thread( () -> 
+            {
+                try
+                {
+                    start.await();
+                }
+                catch ( Exception exception )
+                {
+                    throw new IllegalStateException( exception );
+                }
+                final long startBytes = allocatedBytes();
+                sinks[ thread ] = workload.run( thread );
+                bytes[ thread ] = allocatedBytes() - startBytes;
+            } );
+            threads[ i ].start();
+        }
+        start.await();
+        final long startTime = System.nanoTime();
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        final double time = (double) ( System.nanoTime() - startTime ) / numOps;
+        long sink = 0;
+        long totalBytes = 0;
+        for ( int i = 0; i < numThreads; i++ )
+        {
+            sink += sinks[ i ];
+            totalBytes += bytes[ i ];
+        }
+        return new Result( time, (double) totalBytes / ( (long) numOps * numThreads ), sink );
+    }
+    
+    static private long allocatedBytes()
+    {
+        return ( (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() ).getCurrentThreadAllocatedBytes();
+    }
+    
+    private interface Workload { long run( int thread ); }
+    
+    static final private class Result
+    {
+        final private double time;
+        final private double bytes;
+        final private long sink;
+        
+        private Result( final double time, final double bytes, final long sink )
+        {
+            this.time = time;
+            this.bytes = bytes;
+            this.sink = sink;
+        }
+    }
+}
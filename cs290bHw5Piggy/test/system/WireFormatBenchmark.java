@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import api.NullShared;
+import api.ReturnDecomposition;
+import applications.euclideantsp.LowerBoundNearestNeighbors;
+import applications.euclideantsp.MinTour;
+import applications.euclideantsp.SharedTour;
+import applications.euclideantsp.TaskEuclideanTsp;
+import applications.euclideantsp.Tour;
+import applications.fibonacci.TaskFibonacci;
+import applications.mandelbrotset.TaskMandelbrotSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import static util.EuclideanGraph.greedyTour;
+import static util.EuclideanGraph.tourDistance;
+
+/**
+ * Reports the wire format of the sample applications: for a task, 
+ * a decomposition and a value of each, the bytes per object, 
+ * and the time to serialize and to deserialize it.
+ * Each object is written to a fresh ObjectOutputStream, as RMI does per call.
+ * @author Peter Cappello
+ */
+final class WireFormatBenchmark 
+{
+    static private long taskId = 1L << 40;
+    
+    /**
+     * @param args [0] the number of times each object is serialized and deserialized per measurement 
+     * (default: 20000).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final int numTimes = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 20000;
+        
+        final TaskFibonacci fibonacci = new TaskFibonacci( 20 );
+        ids( fibonacci ).shared( new NullShared() );
+        report( "Fibonacci task", fibonacci, numTimes );
+        report( "Fibonacci decomposition", decomposition( fibonacci ), numTimes );
+        report( "Fibonacci value", ids( new TaskFibonacci( 1 ) ).call(), numTimes );
+        
+        final List<Integer> tour = greedyTour( TaskEuclideanTsp.CITIES );
+        final SharedTour sharedTour = new SharedTour( tour, tourDistance( TaskEuclideanTsp.CITIES, tour ) );
+        final TaskEuclideanTsp tsp = new TaskEuclideanTsp( new LowerBoundNearestNeighbors() );
+        ids( tsp ).shared( sharedTour );
+        final ReturnDecomposition tspDecomposition = decomposition( tsp );
+        report( "TSP task", tspDecomposition.tasks().get( 0 ), numTimes );
+        report( "TSP decomposition", tspDecomposition, numTimes );
+        final MinTour minTour = new MinTour();
+        minTour.numArgs( 1 );
+        minTour.arg( 0, new Tour( tour, sharedTour.cost() ) );
+        report( "TSP value", minTour.call(), numTimes );
+        
+        final TaskMandelbrotSet mandelbrotSet = new TaskMandelbrotSet( -0.75, 0.13, 0.004, 256, 512, 1, 2 );
+        report( "Mandelbrot task", ids( mandelbrotSet ), numTimes );
+        report( "Mandelbrot decomposition", decomposition( new TaskMandelbrotSet( -0.75, 0.13, 0.004, 512, 512, 1, 2 ) ), numTimes );
+        report( "Mandelbrot value, 256 x 256", mandelbrotSet.solve(), numTimes / 100 );
+    }
+    
+    static private <T extends Task> T ids( final T task )
+    {
+        task.id( taskId++ );
+        task.composeId( taskId++ );
+        return task;
+    }
+    
+    static private ReturnDecomposition decomposition( final Task task )
+    {
+        return (ReturnDecomposition) ids( task ).call().setIds( task, () -> taskId++ );
+    }
+    
+    static private void report( final String name, final Object object, final int numTimes ) 
+            throws IOException, ClassNotFoundException
+    {
+        final byte[] bytes = serialize( object );
+        for ( int i = 0; i < numTimes; i++ ) // warm up
+        {
+            serialize( object );
+            deserialize( bytes );
+        }
+        long startTime = System.nanoTime();
+        for ( int i = 0; i < numTimes; i++ )
+        {
+            serialize( object );
+        }
+        final long serializeTime = ( System.nanoTime() - startTime ) / numTimes;
+        startTime = System.nanoTime();
+        for ( int i = 0; i < numTimes; i++ )
+        {
+            deserialize( bytes );
+        }
+        final long deserializeTime = ( System.nanoTime() - startTime ) / numTimes;
+        System.out.printf( "%-28s %8d bytes. serialize: %8d ns. deserialize: %8d ns.%n", 
+                name, bytes.length, serializeTime, deserializeTime );
+    }
+    
+    static private byte[] serialize( final Object object ) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+        {
+            out.writeObject( object );
+        }
+        return bytes.toByteArray();
+    }
+    
+    static private Object deserialize( final byte[] bytes ) throws IOException, ClassNotFoundException
+    {
+        try ( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes ) ) )
+        {
+            return in.readObject();
+        }
+    }
+}
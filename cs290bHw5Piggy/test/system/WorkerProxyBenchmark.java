@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Peter Cappello.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package system;
+
+import api.Shared;
+import applications.fibonacci.TaskFibonacci;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares the Space's cost of running its WorkerProxy objects as platform 
+ * threads, and as virtual threads: its memory, its platform threads, 
+ * the context switches of its threads, and the job run time.
+ * Many Computers are simulated in this JVM: each has its own ComputerImpl, 
+ * and waits latency ms. per remote invocation, like a Computer on a network, 
+ * so each WorkerProxy spends most of its time blocked.
+ * Memory and context switches are read from /proc, on Linux; elsewhere, they are -1.
+ * Run it once per thread kind: each run is a fresh JVM.
+ * @author Peter Cappello
+ */
+final class WorkerProxyBenchmark 
+{
+    /**
+     * @param args [0] platform | virtual (default: platform), 
+     * [1] the number of Computers (default: 100), 
+     * [2] the number of processors per Computer (default: 8), 
+     * [3] the latency of a remote invocation, in ms. (default: 2),
+     * [4] the job: F(n) (default: 20),
+     * [5] the number of times the job is run (default: 5).
+     * @throws Exception 
+     */
+    public static void main( final String[] args ) throws Exception
+    {
+        final boolean isVirtual   = args.length > 0 && args[ 0 ].equals( "virtual" );
+        final int numComputers    = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 100;
+        final int numProcessors   = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 8;
+        final long latency        = args.length > 3 ? Long.parseLong( args[ 3 ] ) : 2;
+        final int n               = args.length > 4 ? Integer.parseInt( args[ 4 ] ) : 20;
+        final int numRuns         = args.length > 5 ? Integer.parseInt( args[ 5 ] ) : 5;
+        
+        final WorkerThreadFactory workerThreadFactory = new WorkerThreadFactory( isVirtual );
+        final SpaceImpl space = new SpaceImpl( workerThreadFactory );
+        System.gc();
+        final long baseMemory = memory();
+        final int baseThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        for ( int i = 0; i < numComputers; i++ )
+        {
+            space.register( new RemoteComputer( new ComputerImpl( space ), latency ), numProcessors );
+        }
+        Thread.sleep( 1000 ); // let the WorkerProxy objects block on the ready task queue.
+        System.gc();
+        final int numWorkerProxies = numComputers * numProcessors * SpaceImpl.PROXIES_PER_PROCESSOR;
+        System.out.printf( "%s threads: %d WorkerProxy objects: %+d platform threads, %+d KB resident memory.%n",
+                workerThreadFactory.isVirtual() ? "Virtual" : "Platform", numWorkerProxies, 
+                ManagementFactory.getThreadMXBean().getThreadCount() - baseThreads, 
+                ( memory() - baseMemory ) / 1024 );
+        for ( int run = 0; run < numRuns; run++ )
+        {
+            final long contextSwitches = contextSwitches();
+            final long startTime = System.nanoTime();
+            final Object value = space.compute( new TaskFibonacci( n ) ).value();
+            final long elapsedTime = System.nanoTime() - startTime;
+            System.out.printf( "F(%d) = %s in %6d ms. %10d context switches.%n", 
+                    n, value, elapsedTime / 1000000, contextSwitches() - contextSwitches );
+        }
+        System.exit( 0 );
+    }
+    
+    /**
+     * @return the resident memory of this JVM, in bytes; -1 if it is unknown.
+     */
+    static private long memory()
+    {
+        final long kb = procStatus( Paths.get( "/proc/self/status" ), "VmRSS:" );
+        return kb < 0 ? -1 : kb * 1024;
+    }
+    
+    /**
+     * @return the number of context switches of this JVM's live threads; -1 if it is unknown.
+     */
+    static private long contextSwitches()
+    {
+        try ( Stream<Path> tasks = Files.list( Paths.get( "/proc/self/task" ) ) )
+        {
+            return tasks.map( task -> task.resolve( "status" ) )
+                        .mapToLong( status -> Math.max( 0, procStatus( status, "voluntary_ctxt_switches:" ) )
+                                            + Math.max( 0, procStatus( status, "nonvoluntary_ctxt_switches:" ) ) )
+                        .sum();
+        }
+        catch ( IOException exception ) { return -1; }
+    }
+    
+    /**
+     * @param status a /proc status file.
+     * @param key the name of a field.
+     * @return the value of the field; -1 if it cannot be read, e.g., its thread ended.
+     */
+    static private long procStatus( final Path status, final String key )
+    {
+        try
+        {
+            for ( String line : Files.readAllLines( status ) )
+            {
+                if ( line.startsWith( key ) )
+                {
+                    return Long.parseLong( line.substring( key.length() ).trim().split( "\\s+" )[ 0 ] );
+                }
+            }
+        }
+        catch ( IOException | NumberFormatException ignore ) {}
+        return -1;
+    }
+    
+    /**
+     * A ComputerImpl that is latency ms. away: each invocation that the Space 
+     * makes, and waits for, takes latency ms. longer.
+     */
+    static final private class RemoteComputer implements Computer
+    {
+        final private Computer computer;
+        final private long latency;
+        
+        RemoteComputer( final Computer computer, final long latency )
+        {
+            this.computer = computer;
+            this.latency = latency;
+        }
+        
+        @Override
+        public Return execute( final Task task ) throws RemoteException
+        {
+            delay();
+            return computer.execute( task );
+        }
+        
+        @Override
+        public List<Return> execute( final List<Task> tasks ) throws RemoteException
+        {
+            delay();
+            return computer.execute( tasks );
+        }
+        
+        @Override
+        public void submit( final long batchId, final List<Task> tasks, final ResultListener listener ) throws RemoteException
+        {
+            delay();
+            computer.submit( batchId, tasks, listener );
+        }
+        
+        @Override
+        public void id( final int computerId ) throws RemoteException { computer.id( computerId ); }
+        
+        @Override
+        public void ping() throws RemoteException
+        {
+            delay();
+            computer.ping();
+        }
+        
+        @Override
+        public void shared( final long jobId, final long version, final Shared shared ) throws RemoteException
+        {
+            computer.shared( jobId, version, shared );
+        }
+        
+        @Override
+        public void cancel( final long jobId ) throws RemoteException { computer.cancel( jobId ); }
+        
+        @Override
+        public void endJob( final long jobId ) throws RemoteException { computer.endJob( jobId ); }
+        
+        private void delay()
+        {
+            try 
+            {
+                Thread.sleep( latency );
+            } 
+            catch ( InterruptedException ignore ) 
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}